@@ -0,0 +1,81 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Benchmarks storing a chosen date and time: with a {@link Calendar}, as
+ * the picker used to on every choice, and with {@link DateTimeValue}. Also
+ * benchmarks looking up zone offsets with {@link TimeZone} and with the
+ * cached transitions of {@link ZoneOffsets}.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateTimeValueBenchmark {
+    private Calendar mCalendar;
+    private DateTimeValue mValue;
+    private TimeZone mTimeZone;
+    private ZoneOffsets mZone;
+    private long mEpochMillis;
+
+
+    @Setup
+    public void setUp() {
+        mTimeZone = TimeZone.getTimeZone("America/New_York");
+        mZone = ZoneOffsets.forId("America/New_York");
+        mCalendar = Calendar.getInstance(mTimeZone);
+        mValue = DateTimeValue.fromCalendar(mCalendar);
+        mEpochMillis = mValue.getEpochMillis();
+    }
+
+    /**
+     * What choosing a date did before {@link DateTimeValue}.
+     */
+    @Benchmark
+    public Calendar calendarWithDate() {
+        final Calendar c = (Calendar)mCalendar.clone();
+        c.set(2018, Calendar.MARCH, 11);
+        c.getTimeInMillis();
+        return c;
+    }
+
+    @Benchmark
+    public Calendar calendarGetInstance() {
+        return Calendar.getInstance(mTimeZone);
+    }
+
+    @Benchmark
+    public DateTimeValue valueWithDate() {
+        return mValue.withDate(2018, Calendar.MARCH, 11);
+    }
+
+    @Benchmark
+    public DateTimeValue valueWithTime() {
+        return mValue.withTime(14, 30);
+    }
+
+    @Benchmark
+    public int timeZoneOffset() {
+        return mTimeZone.getOffset(mEpochMillis += EpochMath.MILLIS_PER_MINUTE);
+    }
+
+    @Benchmark
+    public int zoneOffsetsOffset() {
+        return mZone.getOffset(mEpochMillis += EpochMath.MILLIS_PER_MINUTE);
+    }
+}
@@ -0,0 +1,92 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Benchmarks formatting the date and time displays: with the date formats
+ * the picker used to format with on every choice, with {@link CompiledDateFormat}
+ * into a reused buffer, and through the shared {@link FormattedTextCache}.
+ *
+ * Each invocation formats the next minute, so that caches are not only hit.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormatBenchmark {
+    private static final String DATE_PATTERN = "EEE, MMM dd, yyyy";
+    private static final String TIME_PATTERN = "h:mm aa";
+
+    private DateFormat mDateFormat;
+    private DateFormat mTimeFormat;
+    private CompiledDateFormat mCompiledDateFormat;
+    private CompiledDateFormat mCompiledTimeFormat;
+    private char[] mBuffer;
+    private FormattedTextCache mCache;
+    private ZoneOffsets mZone;
+    private long mEpochMillis;
+
+
+    @Setup
+    public void setUp() {
+        mDateFormat = new SimpleDateFormat(DATE_PATTERN, Locale.US);
+        mTimeFormat = new SimpleDateFormat(TIME_PATTERN, Locale.US);
+        mCompiledDateFormat = CompiledDateFormat.compile(DATE_PATTERN, Locale.US);
+        mCompiledTimeFormat = CompiledDateFormat.compile(TIME_PATTERN, Locale.US);
+        mBuffer = new char[Math.max(mCompiledDateFormat.getMaxLength(),
+                mCompiledTimeFormat.getMaxLength())];
+        mCache = new FormattedTextCache(512);
+        mZone = ZoneOffsets.forId(mDateFormat.getTimeZone().getID());
+        mEpochMillis = 1514764800000L;
+    }
+
+    @Benchmark
+    public String dateFormat() {
+        return mDateFormat.format(new Date(nextMinute()));
+    }
+
+    @Benchmark
+    public String timeFormat() {
+        return mTimeFormat.format(new Date(nextMinute()));
+    }
+
+    @Benchmark
+    public int compiledDateFormat() {
+        return mCompiledDateFormat.format(nextMinute(), mZone, mBuffer);
+    }
+
+    @Benchmark
+    public int compiledTimeFormat() {
+        return mCompiledTimeFormat.format(nextMinute(), mZone, mBuffer);
+    }
+
+    @Benchmark
+    public String cachedDateFormat() {
+        return mCache.get(mCompiledDateFormat, mZone.toLocalMillis(nextMinute()));
+    }
+
+    @Benchmark
+    public String cachedTimeFormat() {
+        return mCache.get(mCompiledTimeFormat, mZone.toLocalMillis(nextMinute()));
+    }
+
+    private long nextMinute() {
+        return mEpochMillis += EpochMath.MILLIS_PER_MINUTE;
+    }
+}
@@ -0,0 +1,78 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Benchmarks checking bookings with {@link IntervalIndex}: queries, and a
+ * query between adding and removing a booking, which only update the max
+ * ends along the path of the booking. Bookings are 30 to 120 minutes long,
+ * spread over about a year per 100000 bookings.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IntervalIndexBenchmark {
+    private static final long START = 1514764800000L;
+    private static final long MINUTE = EpochMath.MILLIS_PER_MINUTE;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private IntervalIndex mIndex;
+    private long mSpan;
+    private Random mRandom;
+
+
+    @Setup
+    public void setUp() {
+        mRandom = new Random(42);
+        mSpan = size * 5 * MINUTE;
+        final long[] starts = new long[size];
+        final long[] ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = START + (long)(mRandom.nextDouble() * mSpan);
+            ends[i] = starts[i] + (30 + mRandom.nextInt(91)) * MINUTE;
+        }
+        mIndex = IntervalIndex.of(starts, ends);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return mIndex.contains(randomTime());
+    }
+
+    @Benchmark
+    public boolean overlaps() {
+        final long start = randomTime();
+        return mIndex.overlaps(start, start + 60 * MINUTE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean addRemoveAndQuery() {
+        final long start = randomTime();
+        mIndex.add(start, start + 60 * MINUTE);
+        final boolean hit = mIndex.contains(randomTime());
+        mIndex.remove(start, start + 60 * MINUTE);
+        return hit;
+    }
+
+    private long randomTime() {
+        return START + (long)(mRandom.nextDouble() * mSpan);
+    }
+}
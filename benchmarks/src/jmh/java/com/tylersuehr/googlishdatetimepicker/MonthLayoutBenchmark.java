@@ -0,0 +1,82 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Benchmarks laying out a month grid: with a {@link Calendar}, as a month
+ * grid would on every draw, computed by {@link MonthLayoutEngine}, and
+ * looked up in its cache while paging through months.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MonthLayoutBenchmark {
+    private Calendar mCalendar;
+    private MonthLayoutEngine mEngine;
+    private int mMonthIndex;
+
+
+    @Setup
+    public void setUp() {
+        // ISO weeks, like the engine computes
+        mCalendar = Calendar.getInstance();
+        mCalendar.setFirstDayOfWeek(Calendar.MONDAY);
+        mCalendar.setMinimalDaysInFirstWeek(4);
+        // Without prefetching, so that paging measures the cache alone
+        mEngine = new MonthLayoutEngine(36, null);
+        mMonthIndex = 2018 * 12;
+    }
+
+    /**
+     * What laying out a month takes with a {@link Calendar}.
+     */
+    @Benchmark
+    public int[] calendarMonth() {
+        final int[] cells = new int[MonthLayoutEngine.LAYOUT_SIZE];
+        final Calendar c = (Calendar)mCalendar.clone();
+        c.clear();
+        c.set(2018, Calendar.MARCH, 1);
+        final int leading = (c.get(Calendar.DAY_OF_WEEK) - Calendar.SUNDAY + 7) % 7;
+        cells[MonthLayoutEngine.MONTH_LENGTH] = c.getActualMaximum(Calendar.DAY_OF_MONTH);
+        c.add(Calendar.DAY_OF_MONTH, -leading);
+        for (int cell = 0; cell < MonthLayoutEngine.CELL_COUNT; cell++) {
+            cells[cell] = c.get(Calendar.DAY_OF_MONTH);
+            if (cell % 7 == Calendar.THURSDAY - Calendar.SUNDAY) {
+                // A row is in the ISO week of its Thursday
+                cells[MonthLayoutEngine.WEEK_NUMBERS + cell / 7] = c.get(Calendar.WEEK_OF_YEAR);
+            }
+            c.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        cells[MonthLayoutEngine.LEADING_DAYS] = leading;
+        return cells;
+    }
+
+    @Benchmark
+    public int[] computeMonth() {
+        return MonthLayoutEngine.computeMonth(2018, Calendar.MARCH, Calendar.SUNDAY);
+    }
+
+    /**
+     * Pages back and forth through two years of months, which all fit the
+     * cache.
+     */
+    @Benchmark
+    public int[] pageCachedMonth() {
+        final int index = 2018 * 12 + (mMonthIndex++ % 24);
+        return mEngine.getMonth(index / 12, index % 12, Calendar.SUNDAY);
+    }
+}
@@ -0,0 +1,102 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Benchmarks validating a chosen datetime: the calendar based validation
+ * the picker used to do by default, {@link ClockDateTimeValidator} on a
+ * {@link DateTimeValue} and on primitives, and validating a batch of 1000
+ * instants at once.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    private Calendar mChosenCalendar;
+    private DateTimeValue mChosenValue;
+    private long mChosenMillis;
+    private ZoneOffsets mZone;
+    private ClockDateTimeValidator mValidator;
+    private long[] mBatch;
+    private ValidationResults mResults;
+
+
+    @Setup
+    public void setUp() {
+        mChosenCalendar = Calendar.getInstance();
+        mChosenCalendar.add(Calendar.DAY_OF_MONTH, 1);
+        mChosenValue = DateTimeValue.fromCalendar(mChosenCalendar);
+        mChosenMillis = mChosenValue.getEpochMillis();
+        mZone = mChosenValue.getZoneOffsets();
+        mValidator = new ClockDateTimeValidator();
+
+        mBatch = new long[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            mBatch[i] = mChosenMillis + (i - BATCH_SIZE / 2) * 60 * EpochMath.MILLIS_PER_MINUTE;
+        }
+        mResults = new ValidationResults();
+    }
+
+    /**
+     * The date validation of the picker before {@link ClockDateTimeValidator}.
+     */
+    @Benchmark
+    public boolean calendarValidateDate() {
+        final Calendar now = Calendar.getInstance();
+        now.clear(Calendar.HOUR_OF_DAY);
+        now.clear(Calendar.MINUTE);
+        now.clear(Calendar.SECOND);
+
+        final Calendar temp = (Calendar)mChosenCalendar.clone();
+        temp.clear(Calendar.HOUR_OF_DAY);
+        temp.clear(Calendar.MINUTE);
+        temp.clear(Calendar.SECOND);
+        return temp.after(now) || temp.equals(now);
+    }
+
+    /**
+     * The time validation of the picker before {@link ClockDateTimeValidator}.
+     */
+    @Benchmark
+    public boolean calendarValidateTime() {
+        return mChosenCalendar.after(Calendar.getInstance());
+    }
+
+    @Benchmark
+    public boolean validateDate() {
+        return mValidator.validateDate(mChosenValue);
+    }
+
+    @Benchmark
+    public boolean validateTime() {
+        return mValidator.validateTime(mChosenValue);
+    }
+
+    @Benchmark
+    public boolean validatePrimitiveDate() {
+        return mValidator.validateDate(mChosenMillis, mZone);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int validateAll() {
+        mValidator.validateAll(mBatch, mZone, mResults);
+        return mResults.getInvalidCount();
+    }
+}
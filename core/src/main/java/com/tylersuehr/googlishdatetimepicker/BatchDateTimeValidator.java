@@ -0,0 +1,29 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Defines a way to validate many dates and times at once, given as
+ * primitive instants, without creating a {@link DateTimeValue} for each.
+ *
+ * Use {@link ValidationResults#validate(DateTimeValidator, long[], ZoneOffsets)}
+ * to validate with any {@link DateTimeValidator}; it takes this fast path
+ * when the validator supports it.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public interface BatchDateTimeValidator extends DateTimeValidator {
+    /**
+     * Validates the date and time of every instant, in one pass, and
+     * stores the results at the same indices.
+     *
+     * @param epochMillis Instants to validate
+     * @param zone Time zone the dates and times are chosen in
+     * @param results Reused to store the results
+     */
+    void validateAll(@NonNull long[] epochMillis, @NonNull ZoneOffsets zone,
+                     @NonNull ValidationResults results);
+}
@@ -0,0 +1,29 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+
+import java.util.Calendar;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Adapter of {@link OnDateTimeChooseListener} for listeners written against
+ * {@link Calendar}. Each event converts the value into a new calendar.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public abstract class CalendarDateTimeChooseListener implements OnDateTimeChooseListener {
+    @Override
+    public final void onDateChosen(@NonNull DateTimeValue chosenDate) {
+        onDateChosen(chosenDate.toCalendar());
+    }
+
+    @Override
+    public final void onTimeChosen(@NonNull DateTimeValue chosenTime) {
+        onTimeChosen(chosenTime.toCalendar());
+    }
+
+    public abstract void onDateChosen(@NonNull Calendar chosenDate);
+    public abstract void onTimeChosen(@NonNull Calendar chosenTime);
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.Nullable;
+
+import java.util.Calendar;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Adapter of {@link DateTimeValidator} for validators written against
+ * {@link Calendar}. Every check converts the value into a new calendar, so
+ * prefer implementing {@link DateTimeValidator} directly where possible.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public abstract class CalendarDateTimeValidator implements DateTimeValidator {
+    @Override
+    public final boolean validateDate(@Nullable DateTimeValue chosenDate) {
+        return validateDate(chosenDate != null ? chosenDate.toCalendar() : null);
+    }
+
+    @Override
+    public final boolean validateTime(@Nullable DateTimeValue chosenTime) {
+        return validateTime(chosenTime != null ? chosenTime.toCalendar() : null);
+    }
+
+    public abstract boolean validateDate(@Nullable Calendar chosenDate);
+    public abstract boolean validateTime(@Nullable Calendar chosenTime);
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Implementation of {@link BatchDateTimeValidator} that only allows dates from
+ * today onwards and times after the current minute, as told by a
+ * {@link DateTimeClock}.
+ *
+ * Validation compares epoch days and epoch minutes instead of building
+ * calendars, so a check does not allocate. The epoch day of "today" is
+ * computed once per zone and reused until the next local midnight, which is
+ * found using the zone's actual offsets so that it stays correct across DST
+ * transitions. The last few zones are kept, so validating in several zones
+ * in turn does not recompute it every time.
+ *
+ * Subclasses that override the {@link DateTimeValue} checks should also
+ * override {@link #validateAll(long[], ZoneOffsets, ValidationResults)},
+ * which uses the primitive checks directly.
+ *
+ * This is thread-safe, so one instance can validate on many threads: the
+ * cached days are immutable snapshots in an array that is replaced as a
+ * whole.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public class ClockDateTimeValidator implements BatchDateTimeValidator {
+    private static final int MAX_ZONES = 4;
+    private static final Today[] NO_TODAYS = new Today[0];
+
+    @NonNull
+    private final DateTimeClock mClock;
+
+    /* Caches today's epoch day in the last zones validated in, newest first */
+    private volatile Today[] mTodays = NO_TODAYS;
+
+
+    public ClockDateTimeValidator() {
+        this(DateTimeClock.SYSTEM);
+    }
+
+    public ClockDateTimeValidator(@NonNull DateTimeClock clock) {
+        mClock = clock;
+    }
+
+    @Override
+    public boolean validateDate(@Nullable DateTimeValue chosenDate) {
+        return chosenDate != null && validateDate(
+                chosenDate.getEpochMillis(), chosenDate.getZoneOffsets());
+    }
+
+    @Override
+    public boolean validateTime(@Nullable DateTimeValue chosenTime) {
+        return chosenTime != null && validateTime(chosenTime.getEpochMillis());
+    }
+
+    /**
+     * Checks that the given instant falls on today or a later day in
+     * the given time zone.
+     *
+     * @param epochMillis Instant to validate
+     * @param zone Time zone the date is chosen in
+     * @return True if valid
+     */
+    public boolean validateDate(long epochMillis, @NonNull ZoneOffsets zone) {
+        final long chosenDay = EpochMath.floorDiv(zone.toLocalMillis(epochMillis),
+                EpochMath.MILLIS_PER_DAY);
+        return chosenDay >= getTodayEpochDay(zone);
+    }
+
+    /**
+     * Checks that the given instant falls after the current minute.
+     *
+     * @param epochMillis Instant to validate
+     * @return True if valid
+     */
+    public boolean validateTime(long epochMillis) {
+        final long chosenMinute = EpochMath.floorDiv(epochMillis, EpochMath.MILLIS_PER_MINUTE);
+        final long nowMinute = EpochMath.floorDiv(mClock.currentTimeMillis(),
+                EpochMath.MILLIS_PER_MINUTE);
+        return chosenMinute > nowMinute;
+    }
+
+    /**
+     * Validates every instant against the same "now", read from the clock
+     * once, without allocating.
+     */
+    @Override
+    public void validateAll(@NonNull long[] epochMillis, @NonNull ZoneOffsets zone,
+                            @NonNull ValidationResults results) {
+        results.reset(epochMillis.length);
+        final long today = getTodayEpochDay(zone);
+        final long nowMinute = EpochMath.floorDiv(mClock.currentTimeMillis(),
+                EpochMath.MILLIS_PER_MINUTE);
+        for (int i = 0; i < epochMillis.length; i++) {
+            final long chosenDay = EpochMath.floorDiv(zone.toLocalMillis(epochMillis[i]),
+                    EpochMath.MILLIS_PER_DAY);
+            if (chosenDay < today) {
+                results.setInvalidDate(i);
+            }
+            if (EpochMath.floorDiv(epochMillis[i], EpochMath.MILLIS_PER_MINUTE) <= nowMinute) {
+                results.setInvalidTime(i);
+            }
+        }
+    }
+
+    @NonNull
+    public DateTimeClock getClock() {
+        return mClock;
+    }
+
+    /**
+     * Gets the epoch day of today in the given zone, only recomputing it
+     * once the clock passes a local midnight or the zone is not cached.
+     */
+    private long getTodayEpochDay(ZoneOffsets zone) {
+        final long now = mClock.currentTimeMillis();
+        final Today[] todays = mTodays;
+        for (int i = 0; i < todays.length; i++) {
+            final Today today = todays[i];
+            if (today.mZone == zone) {
+                if (now >= today.mFrom && now < today.mUntil) {
+                    return today.mEpochDay;
+                }
+                break;
+            }
+        }
+
+        final Today today = new Today(zone, EpochMath.floorDiv(zone.toLocalMillis(now),
+                EpochMath.MILLIS_PER_DAY));
+        mTodays = withToday(todays, today);
+        return today.mEpochDay;
+    }
+
+    /**
+     * Copies the cached days with the given day first, replacing the day of
+     * its zone and dropping the oldest zone when full. A racing update may
+     * be lost, which only means it is computed again.
+     */
+    private static Today[] withToday(Today[] todays, Today today) {
+        final Today[] updated = new Today[Math.min(todays.length + 1, MAX_ZONES)];
+        updated[0] = today;
+        int count = 1;
+        for (int i = 0; i < todays.length && count < updated.length; i++) {
+            if (todays[i].mZone != today.mZone) {
+                updated[count++] = todays[i];
+            }
+        }
+        return (count == updated.length) ? updated : Arrays.copyOf(updated, count);
+    }
+
+
+    /**
+     * Nested inner-class that holds the epoch day of today in a zone,
+     * valid while the current time is in [mFrom, mUntil).
+     */
+    private static final class Today {
+        final ZoneOffsets mZone;
+        final long mEpochDay;
+        final long mFrom;
+        final long mUntil;
+
+        Today(ZoneOffsets zone, long epochDay) {
+            mZone = zone;
+            mEpochDay = epochDay;
+            mFrom = zone.toEpochMillis(epochDay * EpochMath.MILLIS_PER_DAY);
+            mUntil = zone.toEpochMillis((epochDay + 1) * EpochMath.MILLIS_PER_DAY);
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * A date format pattern that has been compiled ahead of time into a flat list
+ * of operations, so that formatting a value only does primitive arithmetic and
+ * writes into a caller-owned char buffer.
+ *
+ * Patterns use the same syntax as {@link SimpleDateFormat}, but only the letters
+ * commonly used for displaying dates and times are supported:
+ * G, y, M, L, d, D, E, a, H, k, K, h, m, s and S. Anything else is rejected
+ * when compiling so callers can fall back to {@link SimpleDateFormat}.
+ *
+ * Instances are immutable and safe to share between threads.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class CompiledDateFormat {
+    private static final int OP_LITERAL = 0;
+    private static final int OP_ERA = 1;
+    private static final int OP_YEAR = 2;
+    private static final int OP_MONTH = 3;
+    private static final int OP_DAY_OF_MONTH = 4;
+    private static final int OP_DAY_OF_YEAR = 5;
+    private static final int OP_DAY_OF_WEEK = 6;
+    private static final int OP_AM_PM = 7;
+    private static final int OP_HOUR_0_23 = 8;
+    private static final int OP_HOUR_1_24 = 9;
+    private static final int OP_HOUR_0_11 = 10;
+    private static final int OP_HOUR_1_12 = 11;
+    private static final int OP_MINUTE = 12;
+    private static final int OP_SECOND = 13;
+    private static final int OP_MILLISECOND = 14;
+
+    /* Widest a formatted year can get: sign and ten digits */
+    private static final int MAX_YEAR_DIGITS = 11;
+
+    private final String mPattern;
+    private final Locale mLocale;
+
+    /* Each operation is packed as (opcode << 24 | count), count being
+       the pattern letter count or the literal length */
+    private final int[] mOps;
+    /* Offsets into mLiterals for each literal operation */
+    private final int[] mLiteralOffsets;
+    private final char[] mLiterals;
+    private final int mMaxLength;
+    private final long mResolution;
+
+    private final String[] mEras;
+    private final String[] mMonths;
+    private final String[] mShortMonths;
+    private final String[] mWeekdays;
+    private final String[] mShortWeekdays;
+    private final String[] mAmPm;
+
+
+    private CompiledDateFormat(String pattern, Locale locale, int[] ops,
+                               int[] literalOffsets, char[] literals) {
+        mPattern = pattern;
+        mLocale = locale;
+        mOps = ops;
+        mLiteralOffsets = literalOffsets;
+        mLiterals = literals;
+
+        final DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+        mEras = symbols.getEras();
+        mMonths = symbols.getMonths();
+        mShortMonths = symbols.getShortMonths();
+        mWeekdays = symbols.getWeekdays();
+        mShortWeekdays = symbols.getShortWeekdays();
+        mAmPm = symbols.getAmPmStrings();
+        mMaxLength = computeMaxLength();
+        mResolution = computeResolution();
+    }
+
+    /**
+     * Compiles the given {@link SimpleDateFormat} pattern.
+     *
+     * @param pattern Pattern string
+     * @param locale Locale used for month, weekday and am/pm names
+     * @return {@link CompiledDateFormat}
+     *
+     * @throws IllegalArgumentException if the pattern is malformed or uses an
+     *         unsupported pattern letter
+     */
+    public static CompiledDateFormat compile(String pattern, Locale locale) {
+        if (pattern == null || locale == null) {
+            throw new IllegalArgumentException("Pattern and locale cannot be null!");
+        }
+
+        final int length = pattern.length();
+        final int[] ops = new int[length];
+        final int[] offsets = new int[length];
+        final StringBuilder literals = new StringBuilder();
+        int opCount = 0;
+
+        int i = 0;
+        while (i < length) {
+            final char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                // Quoted literal text, where two quotes is an escaped quote
+                final int start = literals.length();
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                    literals.append('\'');
+                    i += 2;
+                } else {
+                    i++;
+                    while (true) {
+                        if (i >= length) {
+                            throw new IllegalArgumentException("Unterminated quote in pattern: " + pattern);
+                        }
+                        final char q = pattern.charAt(i);
+                        if (q == '\'') {
+                            if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                                literals.append('\'');
+                                i += 2;
+                                continue;
+                            }
+                            i++;
+                            break;
+                        }
+                        literals.append(q);
+                        i++;
+                    }
+                }
+                opCount = appendLiteral(ops, offsets, opCount, start, literals.length() - start);
+            } else if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')) {
+                int count = 1;
+                while (i + count < length && pattern.charAt(i + count) == ch) {
+                    count++;
+                }
+                ops[opCount++] = (opcodeOf(ch, pattern) << 24) | count;
+                i += count;
+            } else {
+                final int start = literals.length();
+                literals.append(ch);
+                opCount = appendLiteral(ops, offsets, opCount, start, 1);
+                i++;
+            }
+        }
+
+        final int[] trimmedOps = new int[opCount];
+        final int[] trimmedOffsets = new int[opCount];
+        System.arraycopy(ops, 0, trimmedOps, 0, opCount);
+        System.arraycopy(offsets, 0, trimmedOffsets, 0, opCount);
+
+        final char[] chars = new char[literals.length()];
+        literals.getChars(0, chars.length, chars, 0);
+        return new CompiledDateFormat(pattern, locale, trimmedOps, trimmedOffsets, chars);
+    }
+
+    public String getPattern() {
+        return mPattern;
+    }
+
+    public Locale getLocale() {
+        return mLocale;
+    }
+
+    /**
+     * Gets the longest text this format can produce, which is the minimum
+     * size of a buffer passed to {@link #format(long, char[])}.
+     */
+    public int getMaxLength() {
+        return mMaxLength;
+    }
+
+    /**
+     * Gets the smallest unit of time, in millis, that changes the formatted
+     * text. Values that fall into the same unit always format identically.
+     *
+     * @return Millis per day, millis per minute or 1
+     */
+    public long getResolution() {
+        return mResolution;
+    }
+
+    /**
+     * Measures the widest text this format can produce, by picking the
+     * widest name of each name field and the widest digit for each number
+     * field. Years are assumed to have at most four digits.
+     *
+     * This allocates and is meant to be called once per pattern and font,
+     * not per formatted value.
+     *
+     * @param measurer Measures the width of text in some font
+     * @return Max width, in the units of the measurer
+     */
+    public float measureMaxWidth(TextMeasurer measurer) {
+        float digitWidth = 0;
+        for (char digit = '0'; digit <= '9'; digit++) {
+            digitWidth = Math.max(digitWidth, measurer.measure(String.valueOf(digit)));
+        }
+
+        float width = 0;
+        for (int i = 0; i < mOps.length; i++) {
+            final int op = mOps[i];
+            final int count = op & 0xFFFFFF;
+            switch (op >>> 24) {
+                case OP_LITERAL:
+                    width += measurer.measure(new String(mLiterals, mLiteralOffsets[i], count));
+                    break;
+                case OP_ERA:
+                    width += widest(mEras, measurer);
+                    break;
+                case OP_YEAR:
+                    width += digitWidth * ((count == 2) ? 2 : Math.max(count, 4));
+                    break;
+                case OP_MONTH:
+                    width += (count >= 4) ? widest(mMonths, measurer)
+                            : (count == 3) ? widest(mShortMonths, measurer)
+                            : digitWidth * Math.max(count, 2);
+                    break;
+                case OP_DAY_OF_WEEK:
+                    width += (count >= 4) ? widest(mWeekdays, measurer)
+                            : widest(mShortWeekdays, measurer);
+                    break;
+                case OP_AM_PM:
+                    width += widest(mAmPm, measurer);
+                    break;
+                case OP_DAY_OF_YEAR:
+                case OP_MILLISECOND:
+                    width += digitWidth * Math.max(count, 3);
+                    break;
+                default:
+                    width += digitWidth * Math.max(count, 2);
+                    break;
+            }
+        }
+        return width;
+    }
+
+    /**
+     * Creates a char buffer large enough to hold any formatted value.
+     */
+    public char[] newBuffer() {
+        return new char[mMaxLength];
+    }
+
+    /**
+     * Formats the given instant, as seen in the given time zone, into the
+     * buffer without allocating.
+     *
+     * @param epochMillis Instant
+     * @param zone Time zone to show the instant in
+     * @param dst Buffer at least {@link #getMaxLength()} long
+     * @return Number of chars written
+     */
+    public int format(long epochMillis, ZoneOffsets zone, char[] dst) {
+        return format(zone.toLocalMillis(epochMillis), dst);
+    }
+
+    /**
+     * Formats the given wall-clock time into the buffer without allocating.
+     *
+     * @param localMillis Epoch millis already shifted into the local time zone
+     * @param dst Buffer at least {@link #getMaxLength()} long
+     * @return Number of chars written
+     */
+    public int format(long localMillis, char[] dst) {
+        final long epochDay = EpochMath.floorDiv(localMillis, EpochMath.MILLIS_PER_DAY);
+        final int millisOfDay = (int)(localMillis - epochDay * EpochMath.MILLIS_PER_DAY);
+        final int civil = EpochMath.civilFromDays(epochDay);
+        final int year = EpochMath.yearOf(civil);
+        final int month = EpochMath.monthOf(civil);
+        final int hourOfDay = millisOfDay / 3600000;
+
+        int pos = 0;
+        for (int i = 0; i < mOps.length; i++) {
+            final int op = mOps[i];
+            final int count = op & 0xFFFFFF;
+            switch (op >>> 24) {
+                case OP_LITERAL:
+                    System.arraycopy(mLiterals, mLiteralOffsets[i], dst, pos, count);
+                    pos += count;
+                    break;
+                case OP_ERA:
+                    pos = writeText(mEras[year > 0 ? 1 : 0], dst, pos);
+                    break;
+                case OP_YEAR:
+                    // Matches SimpleDateFormat: 'yy' truncates to two digits
+                    final int yearOfEra = year > 0 ? year : 1 - year;
+                    pos = (count == 2)
+                            ? writeNumber(yearOfEra % 100, 2, dst, pos)
+                            : writeNumber(yearOfEra, count, dst, pos);
+                    break;
+                case OP_MONTH:
+                    if (count >= 4) {
+                        pos = writeText(mMonths[month], dst, pos);
+                    } else if (count == 3) {
+                        pos = writeText(mShortMonths[month], dst, pos);
+                    } else {
+                        pos = writeNumber(month + 1, count, dst, pos);
+                    }
+                    break;
+                case OP_DAY_OF_MONTH:
+                    pos = writeNumber(EpochMath.dayOf(civil), count, dst, pos);
+                    break;
+                case OP_DAY_OF_YEAR:
+                    final long dayOfYear = epochDay - EpochMath.daysFromCivil(year, 0, 1) + 1;
+                    pos = writeNumber((int)dayOfYear, count, dst, pos);
+                    break;
+                case OP_DAY_OF_WEEK:
+                    final int dayOfWeek = EpochMath.dayOfWeek(epochDay);
+                    pos = writeText((count >= 4) ? mWeekdays[dayOfWeek]
+                            : mShortWeekdays[dayOfWeek], dst, pos);
+                    break;
+                case OP_AM_PM:
+                    pos = writeText(mAmPm[hourOfDay < 12 ? 0 : 1], dst, pos);
+                    break;
+                case OP_HOUR_0_23:
+                    pos = writeNumber(hourOfDay, count, dst, pos);
+                    break;
+                case OP_HOUR_1_24:
+                    pos = writeNumber(hourOfDay == 0 ? 24 : hourOfDay, count, dst, pos);
+                    break;
+                case OP_HOUR_0_11:
+                    pos = writeNumber(hourOfDay % 12, count, dst, pos);
+                    break;
+                case OP_HOUR_1_12:
+                    final int hour = hourOfDay % 12;
+                    pos = writeNumber(hour == 0 ? 12 : hour, count, dst, pos);
+                    break;
+                case OP_MINUTE:
+                    pos = writeNumber((millisOfDay / 60000) % 60, count, dst, pos);
+                    break;
+                case OP_SECOND:
+                    pos = writeNumber((millisOfDay / 1000) % 60, count, dst, pos);
+                    break;
+                case OP_MILLISECOND:
+                    pos = writeNumber(millisOfDay % 1000, count, dst, pos);
+                    break;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Formats the given wall-clock time into a new string.
+     *
+     * @param localMillis Epoch millis already shifted into the local time zone
+     * @return Formatted text
+     */
+    public String format(long localMillis) {
+        final char[] buffer = newBuffer();
+        return new String(buffer, 0, format(localMillis, buffer));
+    }
+
+    /**
+     * Creates an equivalent {@link SimpleDateFormat}, for callers that need
+     * the {@link java.text.DateFormat} API.
+     */
+    public SimpleDateFormat toSimpleDateFormat() {
+        return new SimpleDateFormat(mPattern, mLocale);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof CompiledDateFormat)) { return false; }
+        final CompiledDateFormat other = (CompiledDateFormat)o;
+        return mPattern.equals(other.mPattern) && mLocale.equals(other.mLocale);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mPattern.hashCode() + mLocale.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledDateFormat{" + mPattern + ", " + mLocale + "}";
+    }
+
+    private int computeMaxLength() {
+        int max = 0;
+        for (int i = 0; i < mOps.length; i++) {
+            final int op = mOps[i];
+            final int count = op & 0xFFFFFF;
+            switch (op >>> 24) {
+                case OP_LITERAL:
+                    max += count;
+                    break;
+                case OP_ERA:
+                    max += longest(mEras);
+                    break;
+                case OP_YEAR:
+                    max += Math.max(count, MAX_YEAR_DIGITS);
+                    break;
+                case OP_MONTH:
+                    max += (count >= 4) ? longest(mMonths)
+                            : (count == 3) ? longest(mShortMonths)
+                            : Math.max(count, 2);
+                    break;
+                case OP_DAY_OF_WEEK:
+                    max += (count >= 4) ? longest(mWeekdays) : longest(mShortWeekdays);
+                    break;
+                case OP_AM_PM:
+                    max += longest(mAmPm);
+                    break;
+                case OP_DAY_OF_YEAR:
+                case OP_MILLISECOND:
+                    max += Math.max(count, 3);
+                    break;
+                default:
+                    max += Math.max(count, 2);
+                    break;
+            }
+        }
+        return max;
+    }
+
+    private long computeResolution() {
+        long resolution = EpochMath.MILLIS_PER_DAY;
+        for (int op : mOps) {
+            switch (op >>> 24) {
+                case OP_SECOND:
+                case OP_MILLISECOND:
+                    return 1L;
+                case OP_AM_PM:
+                case OP_HOUR_0_23:
+                case OP_HOUR_1_24:
+                case OP_HOUR_0_11:
+                case OP_HOUR_1_12:
+                case OP_MINUTE:
+                    resolution = EpochMath.MILLIS_PER_MINUTE;
+                    break;
+            }
+        }
+        return resolution;
+    }
+
+    private static int appendLiteral(int[] ops, int[] offsets, int opCount, int start, int length) {
+        // Merge with the previous literal since they are contiguous
+        if (opCount > 0 && (ops[opCount - 1] >>> 24) == OP_LITERAL) {
+            ops[opCount - 1] += length;
+            return opCount;
+        }
+        if (length == 0) {
+            return opCount;
+        }
+        offsets[opCount] = start;
+        ops[opCount] = (OP_LITERAL << 24) | length;
+        return opCount + 1;
+    }
+
+    private static int opcodeOf(char letter, String pattern) {
+        switch (letter) {
+            case 'G': return OP_ERA;
+            case 'y': return OP_YEAR;
+            case 'M':
+            case 'L': return OP_MONTH;
+            case 'd': return OP_DAY_OF_MONTH;
+            case 'D': return OP_DAY_OF_YEAR;
+            case 'E': return OP_DAY_OF_WEEK;
+            case 'a': return OP_AM_PM;
+            case 'H': return OP_HOUR_0_23;
+            case 'k': return OP_HOUR_1_24;
+            case 'K': return OP_HOUR_0_11;
+            case 'h': return OP_HOUR_1_12;
+            case 'm': return OP_MINUTE;
+            case 's': return OP_SECOND;
+            case 'S': return OP_MILLISECOND;
+            default:
+                throw new IllegalArgumentException("Unsupported pattern letter '"
+                        + letter + "' in: " + pattern);
+        }
+    }
+
+    private static float widest(String[] names, TextMeasurer measurer) {
+        float max = 0;
+        for (String name : names) {
+            if (name != null && !name.isEmpty()) {
+                max = Math.max(max, measurer.measure(name));
+            }
+        }
+        return max;
+    }
+
+    private static int longest(String[] names) {
+        int max = 0;
+        for (String name : names) {
+            if (name != null && name.length() > max) {
+                max = name.length();
+            }
+        }
+        return max;
+    }
+
+    private static int writeText(String text, char[] dst, int pos) {
+        final int length = text.length();
+        text.getChars(0, length, dst, pos);
+        return pos + length;
+    }
+
+    private static int writeNumber(int value, int minDigits, char[] dst, int pos) {
+        if (value < 0) {
+            dst[pos++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < minDigits; i++) {
+            dst[pos++] = '0';
+        }
+
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            dst[i] = (char)('0' + (value % 10));
+            value /= 10;
+        }
+        return end;
+    }
+
+
+    /**
+     * Measures the width of text, i.e. in a given font and text size.
+     */
+    public interface TextMeasurer {
+        float measure(CharSequence text);
+    }
+}
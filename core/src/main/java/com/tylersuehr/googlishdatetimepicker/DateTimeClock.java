@@ -0,0 +1,24 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Defines the source of the current time used for validation, so that it
+ * can be replaced (i.e. with a fixed clock in tests).
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public interface DateTimeClock {
+    /**
+     * Clock that uses {@link System#currentTimeMillis()}.
+     */
+    DateTimeClock SYSTEM = new DateTimeClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    long currentTimeMillis();
+}
@@ -0,0 +1,188 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Immutable selection of a picker: the chosen {@link DateTimeValue} along
+ * with which of its parts, the date and/or the time, were actually chosen.
+ *
+ * Choosing a date keeps the chosen time and choosing a time keeps the chosen
+ * date, falling back to the current time of a {@link DateTimeClock} when
+ * nothing is chosen yet, like DateTimePickerLayout does. Checking a
+ * selection applies the same rules as the picker's default validation, so a
+ * server can validate submitted selections exactly like the app did.
+ *
+ * Instances are immutable and safe to share between threads.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class DateTimeSelection {
+    /** Flag of a chosen date. */
+    public static final int CHOSEN_DATE = 1;
+    /** Flag of a chosen time. */
+    public static final int CHOSEN_TIME = 2;
+
+    private static final DateTimeSelection NONE = new DateTimeSelection(null, 0);
+
+    @Nullable
+    private final DateTimeValue mValue;
+    private final int mChosenFlags;
+
+
+    private DateTimeSelection(@Nullable DateTimeValue value, int chosenFlags) {
+        mValue = value;
+        mChosenFlags = chosenFlags;
+    }
+
+    /**
+     * Gets the selection where nothing is chosen.
+     * @return {@link DateTimeSelection}
+     */
+    @NonNull
+    public static DateTimeSelection none() {
+        return NONE;
+    }
+
+    /**
+     * Creates a selection of the given value.
+     *
+     * @param value Chosen value, or null if nothing is chosen
+     * @param chosenFlags {@link #CHOSEN_DATE} and/or {@link #CHOSEN_TIME},
+     *                    or 0 if nothing is chosen
+     * @return {@link DateTimeSelection}
+     */
+    @NonNull
+    public static DateTimeSelection of(@Nullable DateTimeValue value, int chosenFlags) {
+        chosenFlags &= CHOSEN_DATE | CHOSEN_TIME;
+        if (value == null || chosenFlags == 0) {
+            return NONE;
+        }
+        return new DateTimeSelection(value, chosenFlags);
+    }
+
+    /**
+     * Creates a selection of the given instant, i.e. as submitted by an app.
+     *
+     * @param epochMillis Chosen instant
+     * @param zoneId Time zone it was chosen in
+     * @param chosenFlags {@link #CHOSEN_DATE} and/or {@link #CHOSEN_TIME},
+     *                    or 0 if nothing is chosen
+     * @return {@link DateTimeSelection}
+     */
+    @NonNull
+    public static DateTimeSelection of(long epochMillis, @NonNull String zoneId, int chosenFlags) {
+        return ((chosenFlags & (CHOSEN_DATE | CHOSEN_TIME)) == 0)
+                ? NONE : of(DateTimeValue.of(epochMillis, zoneId), chosenFlags);
+    }
+
+    /**
+     * Chooses a date, keeping the chosen time, if any.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     * @param dayOfMonth One-based day of month
+     * @param clock Clock of the current time, used if nothing is chosen
+     * @param zoneId Time zone to choose in, used if nothing is chosen
+     * @return {@link DateTimeSelection}
+     */
+    @NonNull
+    public DateTimeSelection withDate(int year, int month, int dayOfMonth,
+                                      @NonNull DateTimeClock clock, @NonNull String zoneId) {
+        return new DateTimeSelection(valueOrNow(clock, zoneId).withDate(year, month, dayOfMonth),
+                mChosenFlags | CHOSEN_DATE);
+    }
+
+    /**
+     * Chooses a time, keeping the chosen date, if any.
+     *
+     * @param hourOfDay Hour of day (0-23)
+     * @param minute Minute of hour
+     * @param clock Clock of the current time, used if nothing is chosen
+     * @param zoneId Time zone to choose in, used if nothing is chosen
+     * @return {@link DateTimeSelection}
+     */
+    @NonNull
+    public DateTimeSelection withTime(int hourOfDay, int minute,
+                                      @NonNull DateTimeClock clock, @NonNull String zoneId) {
+        return new DateTimeSelection(valueOrNow(clock, zoneId).withTime(hourOfDay, minute),
+                mChosenFlags | CHOSEN_TIME);
+    }
+
+    /**
+     * Checks this selection with the given validator. A part that is not
+     * chosen is invalid, as with the picker's default validation.
+     *
+     * @param validator {@link DateTimeValidator}, i.e. a
+     *                  {@link ClockDateTimeValidator} for the default rules
+     * @return {@link ValidationResults#INVALID_DATE} and/or
+     *         {@link ValidationResults#INVALID_TIME}, or 0 if valid
+     */
+    public int check(@NonNull DateTimeValidator validator) {
+        return check(validator, mValue, mChosenFlags);
+    }
+
+    /**
+     * Checks a value and its chosen parts with the given validator, like
+     * {@link #check(DateTimeValidator)}, without creating a selection.
+     *
+     * @param validator {@link DateTimeValidator}
+     * @param value Chosen value, or null if nothing is chosen
+     * @param chosenFlags {@link #CHOSEN_DATE} and/or {@link #CHOSEN_TIME},
+     *                    or 0 if nothing is chosen
+     * @return {@link ValidationResults#INVALID_DATE} and/or
+     *         {@link ValidationResults#INVALID_TIME}, or 0 if valid
+     */
+    public static int check(@NonNull DateTimeValidator validator,
+                            @Nullable DateTimeValue value, int chosenFlags) {
+        final boolean dateValid = (chosenFlags & CHOSEN_DATE) != 0
+                && validator.validateDate(value);
+        final boolean timeValid = (chosenFlags & CHOSEN_TIME) != 0
+                && validator.validateTime(value);
+        return (dateValid ? 0 : ValidationResults.INVALID_DATE)
+                | (timeValid ? 0 : ValidationResults.INVALID_TIME);
+    }
+
+    @Nullable
+    public DateTimeValue getValue() {
+        return mValue;
+    }
+
+    public int getChosenFlags() {
+        return mChosenFlags;
+    }
+
+    public boolean isDateChosen() {
+        return (mChosenFlags & CHOSEN_DATE) != 0;
+    }
+
+    public boolean isTimeChosen() {
+        return (mChosenFlags & CHOSEN_TIME) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof DateTimeSelection)) { return false; }
+        final DateTimeSelection other = (DateTimeSelection)o;
+        return mChosenFlags == other.mChosenFlags
+                && (mValue == null ? other.mValue == null : mValue.equals(other.mValue));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mChosenFlags + (mValue != null ? mValue.hashCode() : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "DateTimeSelection{value=" + mValue + ", chosenFlags=" + mChosenFlags + "}";
+    }
+
+    private DateTimeValue valueOrNow(DateTimeClock clock, String zoneId) {
+        return (mValue != null) ? mValue : DateTimeValue.of(clock.currentTimeMillis(), zoneId);
+    }
+}
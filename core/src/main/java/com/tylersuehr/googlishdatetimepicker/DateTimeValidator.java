@@ -2,17 +2,18 @@ package com.tylersuehr.googlishdatetimepicker;
 
 import android.support.annotation.Nullable;
 
-import java.util.Calendar;
-
 /**
  * Copyright © 2017 Tyler Suehr
  *
  * Defines a way to valid the date and time.
  *
+ * Implement {@link CalendarDateTimeValidator} instead to validate using
+ * {@link java.util.Calendar} objects.
+ *
  * @author Tyler Suehr
  * @version 1.0
  */
 public interface DateTimeValidator {
-    boolean validateDate(@Nullable Calendar chosenDate);
-    boolean validateTime(@Nullable Calendar chosenTime);
+    boolean validateDate(@Nullable DateTimeValue chosenDate);
+    boolean validateTime(@Nullable DateTimeValue chosenTime);
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+
+import java.util.Calendar;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Immutable datetime chosen in a DateTimePickerLayout: a minute on the
+ * timeline plus the time zone it was chosen in.
+ *
+ * It is backed by a single epoch minute and a zone id, so it is cheap to copy,
+ * compare and hash. Local fields, like the year or hour of day, are computed
+ * with primitive arithmetic. Use {@link #fromCalendar(Calendar)} and
+ * {@link #toCalendar()} to interop with code that uses {@link Calendar}.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class DateTimeValue implements Comparable<DateTimeValue> {
+    private final long mEpochMinute;
+    @NonNull
+    private final ZoneOffsets mZone;
+
+
+    private DateTimeValue(long epochMinute, @NonNull ZoneOffsets zone) {
+        mEpochMinute = epochMinute;
+        mZone = zone;
+    }
+
+    /**
+     * Creates a value of the minute containing the given instant.
+     *
+     * @param epochMillis Instant
+     * @param zoneId Time zone id
+     * @return {@link DateTimeValue}
+     */
+    @NonNull
+    public static DateTimeValue of(long epochMillis, @NonNull String zoneId) {
+        return ofEpochMinute(EpochMath.floorDiv(epochMillis, EpochMath.MILLIS_PER_MINUTE), zoneId);
+    }
+
+    @NonNull
+    public static DateTimeValue ofEpochMinute(long epochMinute, @NonNull String zoneId) {
+        return new DateTimeValue(epochMinute, ZoneOffsets.forId(zoneId));
+    }
+
+    /**
+     * Creates a value from local date and time fields.
+     *
+     * @param year Full year
+     * @param month Zero-based month, like {@link Calendar#MONTH}
+     * @param dayOfMonth One-based day of month
+     * @param hourOfDay Hour of day (0-23)
+     * @param minute Minute of hour
+     * @param zoneId Time zone id
+     * @return {@link DateTimeValue}
+     */
+    @NonNull
+    public static DateTimeValue ofLocal(int year, int month, int dayOfMonth,
+                                        int hourOfDay, int minute, @NonNull String zoneId) {
+        return ofLocal(year, month, dayOfMonth, hourOfDay, minute, ZoneOffsets.forId(zoneId));
+    }
+
+    /**
+     * Creates a value of the minute in the given calendar, in the
+     * calendar's time zone.
+     *
+     * @param c {@link Calendar}
+     * @return {@link DateTimeValue}
+     */
+    @NonNull
+    public static DateTimeValue fromCalendar(@NonNull Calendar c) {
+        return of(c.getTimeInMillis(), c.getTimeZone().getID());
+    }
+
+    public long getEpochMinute() {
+        return mEpochMinute;
+    }
+
+    public long getEpochMillis() {
+        return mEpochMinute * EpochMath.MILLIS_PER_MINUTE;
+    }
+
+    @NonNull
+    public String getZoneId() {
+        return mZone.getId();
+    }
+
+    @NonNull
+    public ZoneOffsets getZoneOffsets() {
+        return mZone;
+    }
+
+    /**
+     * Gets the wall-clock millis of this value in its time zone.
+     * @return Epoch millis shifted into the time zone
+     */
+    public long getLocalMillis() {
+        return mZone.toLocalMillis(getEpochMillis());
+    }
+
+    /**
+     * Gets the local day of this value, as days since 1970-01-01.
+     * @return Epoch day
+     */
+    public long getEpochDay() {
+        return EpochMath.floorDiv(getLocalMillis(), EpochMath.MILLIS_PER_DAY);
+    }
+
+    public int getYear() {
+        return EpochMath.yearOf(EpochMath.civilFromDays(getEpochDay()));
+    }
+
+    /**
+     * @return Zero-based month, like {@link Calendar#MONTH}
+     */
+    public int getMonth() {
+        return EpochMath.monthOf(EpochMath.civilFromDays(getEpochDay()));
+    }
+
+    public int getDayOfMonth() {
+        return EpochMath.dayOf(EpochMath.civilFromDays(getEpochDay()));
+    }
+
+    /**
+     * @return {@link Calendar#SUNDAY} through {@link Calendar#SATURDAY}
+     */
+    public int getDayOfWeek() {
+        return EpochMath.dayOfWeek(getEpochDay());
+    }
+
+    public int getHourOfDay() {
+        return getMinuteOfDay() / 60;
+    }
+
+    public int getMinute() {
+        return getMinuteOfDay() % 60;
+    }
+
+    public int getMinuteOfDay() {
+        return (int)(EpochMath.floorMod(getLocalMillis(), EpochMath.MILLIS_PER_DAY)
+                / EpochMath.MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * Creates a copy of this value on the given local date, keeping the
+     * local time of day.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     * @param dayOfMonth One-based day of month
+     * @return {@link DateTimeValue}
+     */
+    @NonNull
+    public DateTimeValue withDate(int year, int month, int dayOfMonth) {
+        final int minuteOfDay = getMinuteOfDay();
+        return ofLocal(year, month, dayOfMonth, minuteOfDay / 60, minuteOfDay % 60, mZone);
+    }
+
+    /**
+     * Creates a copy of this value at the given local time, keeping the
+     * local date.
+     *
+     * @param hourOfDay Hour of day (0-23)
+     * @param minute Minute of hour
+     * @return {@link DateTimeValue}
+     */
+    @NonNull
+    public DateTimeValue withTime(int hourOfDay, int minute) {
+        final long localMidnight = getEpochDay() * EpochMath.MILLIS_PER_DAY;
+        return ofLocalMillis(localMidnight + (hourOfDay * 60L + minute) * EpochMath.MILLIS_PER_MINUTE, mZone);
+    }
+
+    /**
+     * Creates a copy of this value in another time zone, at the same
+     * instant.
+     *
+     * @param zoneId Time zone id
+     * @return {@link DateTimeValue}
+     */
+    @NonNull
+    public DateTimeValue withZone(@NonNull String zoneId) {
+        return ofEpochMinute(mEpochMinute, zoneId);
+    }
+
+    /**
+     * Creates a new {@link Calendar} set to this value and time zone.
+     * @return {@link Calendar}
+     */
+    @NonNull
+    public Calendar toCalendar() {
+        final Calendar c = Calendar.getInstance(mZone.toTimeZone());
+        c.setTimeInMillis(getEpochMillis());
+        return c;
+    }
+
+    public boolean isBefore(@NonNull DateTimeValue other) {
+        return mEpochMinute < other.mEpochMinute;
+    }
+
+    public boolean isAfter(@NonNull DateTimeValue other) {
+        return mEpochMinute > other.mEpochMinute;
+    }
+
+    /**
+     * Orders values on the timeline, then by zone id.
+     */
+    @Override
+    public int compareTo(@NonNull DateTimeValue other) {
+        if (mEpochMinute != other.mEpochMinute) {
+            return mEpochMinute < other.mEpochMinute ? -1 : 1;
+        }
+        return mZone.getId().compareTo(other.mZone.getId());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof DateTimeValue)) { return false; }
+        final DateTimeValue other = (DateTimeValue)o;
+        return mEpochMinute == other.mEpochMinute && mZone.getId().equals(other.mZone.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int)(mEpochMinute ^ (mEpochMinute >>> 32)) + mZone.getId().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        final int civil = EpochMath.civilFromDays(getEpochDay());
+        final int minuteOfDay = getMinuteOfDay();
+        return "DateTimeValue{" + EpochMath.yearOf(civil)
+                + "-" + pad(EpochMath.monthOf(civil) + 1)
+                + "-" + pad(EpochMath.dayOf(civil))
+                + "T" + pad(minuteOfDay / 60) + ":" + pad(minuteOfDay % 60)
+                + " " + mZone.getId() + "}";
+    }
+
+    private static DateTimeValue ofLocal(int year, int month, int dayOfMonth,
+                                         int hourOfDay, int minute, ZoneOffsets zone) {
+        final long localMillis = EpochMath.daysFromCivil(year, month, dayOfMonth) * EpochMath.MILLIS_PER_DAY
+                + (hourOfDay * 60L + minute) * EpochMath.MILLIS_PER_MINUTE;
+        return ofLocalMillis(localMillis, zone);
+    }
+
+    private static DateTimeValue ofLocalMillis(long localMillis, ZoneOffsets zone) {
+        final long epochMillis = zone.toEpochMillis(localMillis);
+        return new DateTimeValue(EpochMath.floorDiv(epochMillis, EpochMath.MILLIS_PER_MINUTE), zone);
+    }
+
+    private static String pad(int value) {
+        return (value < 10) ? "0" + value : String.valueOf(value);
+    }
+}
@@ -0,0 +1,128 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import java.util.Calendar;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Primitive calendar arithmetic on epoch days and epoch millis, used so that
+ * the picker can work with dates without allocating {@link Calendar} objects.
+ *
+ * All calculations use the proleptic Gregorian calendar and months are
+ * zero-based to stay consistent with {@link Calendar#MONTH}.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class EpochMath {
+    public static final long MILLIS_PER_MINUTE = 60000L;
+    public static final long MILLIS_PER_DAY = 86400000L;
+    public static final int MINUTES_PER_DAY = 1440;
+
+    private EpochMath() {}
+
+    public static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    public static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    /**
+     * Converts a local civil date into days since 1970-01-01.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     * @param dayOfMonth One-based day of month
+     * @return Epoch day
+     */
+    public static long daysFromCivil(int year, int month, int dayOfMonth) {
+        // Shift the year so that it starts in March, which puts the
+        // leap day at the very end of the year
+        final int m = month + 1;
+        final long y = (m <= 2) ? year - 1 : year;
+        final long era = floorDiv(y, 400);
+        final long yoe = y - era * 400;
+        final long doy = (153 * (m + (m > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        final long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * Converts days since 1970-01-01 into a packed civil date. Use
+     * {@link #yearOf(int)}, {@link #monthOf(int)} and {@link #dayOf(int)}
+     * to read the fields back out.
+     *
+     * @param epochDay Epoch day
+     * @return Packed civil date
+     */
+    public static int civilFromDays(long epochDay) {
+        final long z = epochDay + 719468;
+        final long era = floorDiv(z, 146097);
+        final long doe = z - era * 146097;
+        final long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final long mp = (5 * doy + 2) / 153;
+        final int day = (int)(doy - (153 * mp + 2) / 5 + 1);
+        final int month = (int)(mp < 10 ? mp + 2 : mp - 10);
+        final int year = (int)(yoe + era * 400 + (month < 2 ? 1 : 0));
+        return (year << 9) | (month << 5) | day;
+    }
+
+    public static int yearOf(int civil) {
+        return civil >> 9;
+    }
+
+    public static int monthOf(int civil) {
+        return (civil >> 5) & 0xF;
+    }
+
+    public static int dayOf(int civil) {
+        return civil & 0x1F;
+    }
+
+    /**
+     * Gets the day of week of the given epoch day.
+     *
+     * @param epochDay Epoch day
+     * @return {@link Calendar#SUNDAY} through {@link Calendar#SATURDAY}
+     */
+    public static int dayOfWeek(long epochDay) {
+        // 1970-01-01 was a Thursday
+        return (int)floorMod(epochDay + 4, 7) + 1;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case Calendar.FEBRUARY:
+                return isLeapYear(year) ? 29 : 28;
+            case Calendar.APRIL:
+            case Calendar.JUNE:
+            case Calendar.SEPTEMBER:
+            case Calendar.NOVEMBER:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Gets the wall-clock millis (epoch millis shifted by the zone and daylight
+     * offsets) of the given calendar without allocating.
+     *
+     * @param c {@link Calendar}
+     * @return Local epoch millis
+     */
+    public static long localMillisOf(Calendar c) {
+        return c.getTimeInMillis() + c.get(Calendar.ZONE_OFFSET) + c.get(Calendar.DST_OFFSET);
+    }
+}
@@ -0,0 +1,197 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Process-wide, bounded LRU cache of formatted date and time text that is
+ * shared by every DateTimePickerLayout.
+ *
+ * Entries are keyed by the compiled format (pattern and locale) and by the
+ * wall-clock value truncated to the format's resolution: the epoch day for
+ * date-only patterns, the epoch minute for time patterns. Since wall-clock
+ * values are already shifted into their time zone, the same string is shared
+ * by every zone that shows the same local day or minute.
+ *
+ * Lookups that hit do not allocate and return the same string instance every
+ * time, so a list of rows showing the same handful of values formats each
+ * distinct value only once.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class FormattedTextCache {
+    private static final int DEFAULT_CAPACITY = 512;
+    private static volatile FormattedTextCache sInstance;
+
+    private final Map<Key, String> mEntries;
+    /* Reused to look up entries without allocating a key */
+    private final Key mProbe = new Key();
+    /* Reused to format values that miss the cache */
+    private char[] mScratch = new char[32];
+
+    private int mCapacity;
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+
+    public FormattedTextCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative!");
+        }
+        mCapacity = capacity;
+        mEntries = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                if (size() > mCapacity) {
+                    mEvictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the shared instance used by all pickers.
+     * @return {@link FormattedTextCache}
+     */
+    public static FormattedTextCache getInstance() {
+        if (sInstance == null) {
+            synchronized (FormattedTextCache.class) {
+                if (sInstance == null) {
+                    sInstance = new FormattedTextCache(DEFAULT_CAPACITY);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Gets the formatted text of the given wall-clock time, formatting and
+     * caching it only if it has not been seen before.
+     *
+     * @param format {@link CompiledDateFormat}
+     * @param localMillis Epoch millis already shifted into the local time zone
+     * @return Formatted text
+     */
+    public synchronized String get(CompiledDateFormat format, long localMillis) {
+        final long resolution = format.getResolution();
+        if (mCapacity == 0 || resolution < EpochMath.MILLIS_PER_MINUTE) {
+            // Caching to the milli would never hit
+            mMissCount++;
+            return formatToString(format, localMillis);
+        }
+
+        final long unit = EpochMath.floorDiv(localMillis, resolution);
+        mProbe.set(format, unit);
+        String text = mEntries.get(mProbe);
+        if (text != null) {
+            mHitCount++;
+            return text;
+        }
+
+        mMissCount++;
+        text = formatToString(format, localMillis);
+        final Key key = new Key();
+        key.set(format, unit);
+        mEntries.put(key, text);
+        return text;
+    }
+
+    /**
+     * Sets the max number of entries, evicting the least recently used
+     * entries if needed. A capacity of 0 disables caching.
+     *
+     * @param capacity Max number of entries
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative!");
+        }
+        mCapacity = capacity;
+        trimToCapacity();
+    }
+
+    public synchronized int getCapacity() {
+        return mCapacity;
+    }
+
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Removes all entries and resets the hit, miss and eviction counters.
+     */
+    public synchronized void clear() {
+        mEntries.clear();
+        mHitCount = 0;
+        mMissCount = 0;
+        mEvictionCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FormattedTextCache{size=" + mEntries.size() + ", capacity=" + mCapacity
+                + ", hits=" + mHitCount + ", misses=" + mMissCount
+                + ", evictions=" + mEvictionCount + "}";
+    }
+
+    private String formatToString(CompiledDateFormat format, long localMillis) {
+        if (mScratch.length < format.getMaxLength()) {
+            mScratch = format.newBuffer();
+        }
+        return new String(mScratch, 0, format.format(localMillis, mScratch));
+    }
+
+    private void trimToCapacity() {
+        while (mEntries.size() > mCapacity) {
+            final Key eldest = mEntries.keySet().iterator().next();
+            mEntries.remove(eldest);
+            mEvictionCount++;
+        }
+    }
+
+
+    /**
+     * Cache key of a compiled format and a wall-clock unit (day or minute).
+     */
+    private static final class Key {
+        CompiledDateFormat format;
+        long unit;
+
+        void set(CompiledDateFormat format, long unit) {
+            this.format = format;
+            this.unit = unit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (!(o instanceof Key)) { return false; }
+            final Key other = (Key)o;
+            return unit == other.unit && format.equals(other.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * format.hashCode() + (int)(unit ^ (unit >>> 32));
+        }
+    }
+}
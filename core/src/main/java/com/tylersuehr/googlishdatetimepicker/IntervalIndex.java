@@ -0,0 +1,437 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Index of half-open intervals [start, end) of longs, like bookings in
+ * epoch millis or blackout days in epoch days, that answers whether a point
+ * or range hits any interval, and adds and removes intervals, in O(log n).
+ *
+ * Intervals are kept in a treap ordered by start, in parallel arrays, where
+ * each node also holds the max end of its subtree. A point hits an interval
+ * if the max end of all intervals starting at or before it lies after it,
+ * which one walk down the tree finds. Adding or removing an interval only
+ * updates the max ends along its path, so bookings can change between
+ * queries without rebuilding anything.
+ *
+ * This is not thread-safe while it changes. Queries only read, so while it
+ * does not change they can run on many threads.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class IntervalIndex {
+    private static final int NIL = -1;
+
+    /* Nodes of the treap as parallel arrays, indexed by node */
+    private long[] mStarts;
+    private long[] mEnds;
+    /* Max end of the subtree of each node */
+    private long[] mMaxEnds;
+    private int[] mLefts;
+    private int[] mRights;
+    private int[] mPriorities;
+
+    private int mRoot = NIL;
+    private int mSize;
+    /* Nodes in use or freed, and the head of the freed nodes, linked by mLefts */
+    private int mUsed;
+    private int mFree = NIL;
+    /* Seed of the node priorities */
+    private int mSeed = 0x2545F491;
+
+    /* Trees split off by split(), to avoid allocating a pair */
+    private int mSplitLeft;
+    private int mSplitRight;
+    /* Set by remove(int, long, long) if it found the interval */
+    private boolean mRemoved;
+
+
+    public IntervalIndex() {
+        this(16);
+    }
+
+    public IntervalIndex(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative!");
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Creates an index of the given intervals, sorting them once and
+     * building a balanced tree instead of inserting them one by one.
+     *
+     * @param starts Starts of the intervals, inclusive
+     * @param ends Ends of the intervals, exclusive
+     * @return {@link IntervalIndex}
+     */
+    @NonNull
+    public static IntervalIndex of(@NonNull long[] starts, @NonNull long[] ends) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("Starts and ends must have the same length!");
+        }
+        final int n = starts.length;
+        final IntervalIndex index = new IntervalIndex(n);
+        for (int i = 0; i < n; i++) {
+            checkInterval(starts[i], ends[i]);
+        }
+        System.arraycopy(starts, 0, index.mStarts, 0, n);
+        System.arraycopy(ends, 0, index.mEnds, 0, n);
+        sort(index.mStarts, index.mEnds, 0, n - 1);
+        index.mSize = n;
+        index.mUsed = n;
+        index.mRoot = index.build(0, n - 1);
+        index.assignPriorities();
+        return index;
+    }
+
+    /**
+     * Adds an interval.
+     *
+     * @param start Start, inclusive
+     * @param end End, exclusive; must be after the start
+     */
+    public void add(long start, long end) {
+        checkInterval(start, end);
+        final int node = newNode(start, end);
+        mRoot = insert(mRoot, node);
+        mSize++;
+    }
+
+    /**
+     * Removes one interval equal to the given interval.
+     *
+     * @param start Start, inclusive
+     * @param end End, exclusive
+     * @return True if an interval was removed
+     */
+    public boolean remove(long start, long end) {
+        mRemoved = false;
+        mRoot = remove(mRoot, start, end);
+        if (mRemoved) {
+            mSize--;
+        }
+        return mRemoved;
+    }
+
+    /**
+     * Checks if any interval contains the given point.
+     *
+     * @param point Point
+     * @return True if contained
+     */
+    public boolean contains(long point) {
+        return maxEndOfStartsAtMost(point) > point;
+    }
+
+    /**
+     * Checks if any interval overlaps the given range.
+     *
+     * @param start Start of the range, inclusive
+     * @param end End of the range, exclusive; must be after the start
+     * @return True if overlapped
+     */
+    public boolean overlaps(long start, long end) {
+        checkInterval(start, end);
+        // Intervals starting before the range ends, ending after it starts
+        return end != Long.MIN_VALUE && maxEndOfStartsAtMost(end - 1) > start;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        mRoot = NIL;
+        mSize = 0;
+        mUsed = 0;
+        mFree = NIL;
+    }
+
+    @Override
+    public String toString() {
+        return "IntervalIndex{size=" + mSize + "}";
+    }
+
+    /**
+     * Gets the max end of the intervals starting at or before the given
+     * value, or {@link Long#MIN_VALUE} if there are none.
+     */
+    private long maxEndOfStartsAtMost(long value) {
+        long max = Long.MIN_VALUE;
+        int t = mRoot;
+        while (t != NIL) {
+            if (mStarts[t] <= value) {
+                // This node and its whole left subtree start at or before it
+                max = Math.max(max, Math.max(mEnds[t], maxEndOf(mLefts[t])));
+                t = mRights[t];
+            } else {
+                t = mLefts[t];
+            }
+        }
+        return max;
+    }
+
+    private int insert(int t, int node) {
+        if (t == NIL) {
+            return node;
+        }
+        if (mPriorities[node] > mPriorities[t]) {
+            split(t, mStarts[node]);
+            mLefts[node] = mSplitLeft;
+            mRights[node] = mSplitRight;
+            update(node);
+            return node;
+        }
+        if (mStarts[node] < mStarts[t]) {
+            mLefts[t] = insert(mLefts[t], node);
+        } else {
+            mRights[t] = insert(mRights[t], node);
+        }
+        update(t);
+        return t;
+    }
+
+    /**
+     * Removes one node of the given interval from the tree, returning its
+     * new root. Equal starts can be on either side of a node, so both
+     * sides are searched for them.
+     */
+    private int remove(int t, long start, long end) {
+        if (t == NIL) {
+            return NIL;
+        }
+        if (mStarts[t] == start && mEnds[t] == end) {
+            mRemoved = true;
+            final int merged = merge(mLefts[t], mRights[t]);
+            freeNode(t);
+            return merged;
+        }
+        if (start <= mStarts[t]) {
+            mLefts[t] = remove(mLefts[t], start, end);
+        }
+        if (!mRemoved && start >= mStarts[t]) {
+            mRights[t] = remove(mRights[t], start, end);
+        }
+        if (mRemoved) {
+            update(t);
+        }
+        return t;
+    }
+
+    /**
+     * Splits a tree into the nodes starting before the given key, into
+     * mSplitLeft, and the rest, into mSplitRight.
+     */
+    private void split(int t, long key) {
+        if (t == NIL) {
+            mSplitLeft = NIL;
+            mSplitRight = NIL;
+        } else if (mStarts[t] < key) {
+            split(mRights[t], key);
+            mRights[t] = mSplitLeft;
+            update(t);
+            mSplitLeft = t;
+        } else {
+            split(mLefts[t], key);
+            mLefts[t] = mSplitRight;
+            update(t);
+            mSplitRight = t;
+        }
+    }
+
+    /**
+     * Merges two trees, where the first starts at or before the second.
+     */
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (mPriorities[a] > mPriorities[b]) {
+            mRights[a] = merge(mRights[a], b);
+            update(a);
+            return a;
+        }
+        mLefts[b] = merge(a, mLefts[b]);
+        update(b);
+        return b;
+    }
+
+    private void update(int t) {
+        mMaxEnds[t] = Math.max(mEnds[t], Math.max(maxEndOf(mLefts[t]), maxEndOf(mRights[t])));
+    }
+
+    private long maxEndOf(int t) {
+        return (t == NIL) ? Long.MIN_VALUE : mMaxEnds[t];
+    }
+
+    /**
+     * Builds a balanced tree of the sorted nodes from lo to hi.
+     */
+    private int build(int lo, int hi) {
+        if (lo > hi) {
+            return NIL;
+        }
+        final int mid = (lo + hi) >>> 1;
+        mLefts[mid] = build(lo, mid - 1);
+        mRights[mid] = build(mid + 1, hi);
+        update(mid);
+        return mid;
+    }
+
+    /**
+     * Gives the nodes of a built tree random priorities that decrease from
+     * the root down, so that it is a treap like one built by inserting.
+     */
+    private void assignPriorities() {
+        final int n = mUsed;
+        final int[] priorities = new int[n];
+        for (int i = 0; i < n; i++) {
+            priorities[i] = nextPriority();
+        }
+        Arrays.sort(priorities);
+
+        // Breadth first, so parents get higher priorities than children
+        final int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        if (mRoot != NIL) {
+            queue[tail++] = mRoot;
+        }
+        while (head < tail) {
+            final int t = queue[head];
+            mPriorities[t] = priorities[n - 1 - head];
+            head++;
+            if (mLefts[t] != NIL) {
+                queue[tail++] = mLefts[t];
+            }
+            if (mRights[t] != NIL) {
+                queue[tail++] = mRights[t];
+            }
+        }
+    }
+
+    private int newNode(long start, long end) {
+        final int node;
+        if (mFree != NIL) {
+            node = mFree;
+            mFree = mLefts[node];
+        } else {
+            if (mUsed == mStarts.length) {
+                grow();
+            }
+            node = mUsed++;
+        }
+        mStarts[node] = start;
+        mEnds[node] = end;
+        mMaxEnds[node] = end;
+        mLefts[node] = NIL;
+        mRights[node] = NIL;
+        mPriorities[node] = nextPriority();
+        return node;
+    }
+
+    private void freeNode(int node) {
+        mLefts[node] = mFree;
+        mFree = node;
+    }
+
+    private int nextPriority() {
+        // Xorshift, enough to keep the treap balanced
+        int x = mSeed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        mSeed = x;
+        return x;
+    }
+
+    private void allocate(int capacity) {
+        mStarts = new long[capacity];
+        mEnds = new long[capacity];
+        mMaxEnds = new long[capacity];
+        mLefts = new int[capacity];
+        mRights = new int[capacity];
+        mPriorities = new int[capacity];
+    }
+
+    private void grow() {
+        final int capacity = Math.max(16, mStarts.length + (mStarts.length >> 1));
+        mStarts = Arrays.copyOf(mStarts, capacity);
+        mEnds = Arrays.copyOf(mEnds, capacity);
+        mMaxEnds = Arrays.copyOf(mMaxEnds, capacity);
+        mLefts = Arrays.copyOf(mLefts, capacity);
+        mRights = Arrays.copyOf(mRights, capacity);
+        mPriorities = Arrays.copyOf(mPriorities, capacity);
+    }
+
+    private static void checkInterval(long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("End must be after start: [" + start + ", " + end + ")");
+        }
+    }
+
+    /**
+     * Sorts the parallel arrays by start, in place, with a quicksort that
+     * switches to insertion sort for small ranges.
+     */
+    private static void sort(long[] starts, long[] ends, int lo, int hi) {
+        while (hi - lo > 16) {
+            // Median of three as the pivot
+            final int mid = (lo + hi) >>> 1;
+            if (starts[mid] < starts[lo]) { swap(starts, ends, mid, lo); }
+            if (starts[hi] < starts[lo]) { swap(starts, ends, hi, lo); }
+            if (starts[hi] < starts[mid]) { swap(starts, ends, hi, mid); }
+            final long pivot = starts[mid];
+
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (starts[i] < pivot) { i++; }
+                while (starts[j] > pivot) { j--; }
+                if (i <= j) {
+                    swap(starts, ends, i++, j--);
+                }
+            }
+
+            // Recurse into the smaller side to bound the stack depth
+            if (j - lo < hi - i) {
+                sort(starts, ends, lo, j);
+                lo = i;
+            } else {
+                sort(starts, ends, i, hi);
+                hi = j;
+            }
+        }
+
+        for (int i = lo + 1; i <= hi; i++) {
+            final long start = starts[i];
+            final long end = ends[i];
+            int j = i - 1;
+            while (j >= lo && starts[j] > start) {
+                starts[j + 1] = starts[j];
+                ends[j + 1] = ends[j];
+                j--;
+            }
+            starts[j + 1] = start;
+            ends[j + 1] = end;
+        }
+    }
+
+    private static void swap(long[] starts, long[] ends, int a, int b) {
+        final long start = starts[a];
+        starts[a] = starts[b];
+        starts[b] = start;
+        final long end = ends[a];
+        ends[a] = ends[b];
+        ends[b] = end;
+    }
+}
@@ -0,0 +1,357 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Computes the layouts of months shown as grids of six weeks, and keeps
+ * them in a bounded LRU cache, so that a month grid never has to work out
+ * a month's first weekday, length and week numbers while drawing.
+ *
+ * A layout is a flat int array: the {@link #CELL_COUNT} cells of the grid,
+ * each holding a packed civil date (read with {@link EpochMath#yearOf(int)},
+ * {@link EpochMath#monthOf(int)} and {@link EpochMath#dayOf(int)}), including
+ * the days of the previous and next month around it, followed by the ISO
+ * week number of each row, the number of leading days of the previous month,
+ * the length of the month and the epoch day of the first cell. Layouts are
+ * shared by all callers, so they must not be modified.
+ *
+ * Whenever a month is looked up, the months before and after it are computed
+ * ahead on the prefetch executor, unless they are cached already, so that
+ * paging through months one at a time only ever hits the cache. A month
+ * that is not cached yet, like the first one shown, is computed on the
+ * calling thread, which takes a few microseconds.
+ *
+ * Looking up a cached month whose neighbors are cached too does not
+ * allocate. Prefetching reuses its tasks and the keys of evicted months, so
+ * only the new layout and its cache entry are allocated.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class MonthLayoutEngine {
+    /** Number of cells of a layout: six weeks of seven days. */
+    public static final int CELL_COUNT = 42;
+    /** Index of the ISO week number of the first row, followed by the other rows. */
+    public static final int WEEK_NUMBERS = 42;
+    /** Index of the number of cells before the first day of the month. */
+    public static final int LEADING_DAYS = 48;
+    /** Index of the number of days of the month. */
+    public static final int MONTH_LENGTH = 49;
+    /** Index of the epoch day of the first cell. */
+    public static final int FIRST_EPOCH_DAY = 50;
+    /** Length of a layout. */
+    public static final int LAYOUT_SIZE = 51;
+
+    private static final int ROWS = 6;
+    private static final int DEFAULT_CAPACITY = 36;
+    /* Marks a month being computed by the prefetch executor */
+    private static final int[] PENDING = new int[0];
+    private static volatile MonthLayoutEngine sInstance;
+
+    private final Map<Key, int[]> mLayouts;
+    /* Reused to look up layouts without allocating a key */
+    private final Key mProbe = new Key();
+    private final Executor mPrefetchExecutor;
+    private final int mCapacity;
+    /* Keys of evicted months and idle prefetch tasks, reused before allocating */
+    private final Key[] mFreeKeys = new Key[4];
+    private int mFreeKeyCount;
+    private final PrefetchTask[] mFreeTasks = new PrefetchTask[4];
+    private int mFreeTaskCount;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mPrefetchCount;
+
+
+    /**
+     * Constructs an engine.
+     *
+     * @param capacity Max number of cached months
+     * @param prefetchExecutor Executor to compute adjacent months on, or
+     *                         null to not prefetch them
+     */
+    public MonthLayoutEngine(int capacity, Executor prefetchExecutor) {
+        if (capacity < 3) {
+            throw new IllegalArgumentException("Capacity must fit a month and its neighbors!");
+        }
+        mCapacity = capacity;
+        mPrefetchExecutor = prefetchExecutor;
+        mLayouts = new LinkedHashMap<Key, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                if (size() <= mCapacity) {
+                    return false;
+                }
+                recycleKey(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets the shared instance used by all month grids, which prefetches on
+     * a single background thread.
+     * @return {@link MonthLayoutEngine}
+     */
+    public static MonthLayoutEngine getInstance() {
+        if (sInstance == null) {
+            synchronized (MonthLayoutEngine.class) {
+                if (sInstance == null) {
+                    sInstance = new MonthLayoutEngine(DEFAULT_CAPACITY, newPrefetchExecutor());
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Gets the layout of the given month, computing it only if it is not
+     * cached yet, and prefetches the months before and after it.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     * @param firstDayOfWeek {@link Calendar#SUNDAY} through {@link Calendar#SATURDAY}
+     * @return Layout, which must not be modified
+     */
+    public int[] getMonth(int year, int month, int firstDayOfWeek) {
+        checkArguments(month, firstDayOfWeek);
+        final long index = year * 12L + month;
+        int[] layout;
+        PrefetchTask before = null;
+        PrefetchTask after = null;
+        synchronized (this) {
+            mProbe.set(index, firstDayOfWeek);
+            layout = mLayouts.get(mProbe);
+            if (layout != null && layout != PENDING) {
+                mHitCount++;
+            } else {
+                mMissCount++;
+                layout = null;
+            }
+            if (mPrefetchExecutor != null) {
+                before = startPrefetch(index - 1, firstDayOfWeek);
+                after = startPrefetch(index + 1, firstDayOfWeek);
+            }
+        }
+
+        if (layout == null) {
+            // Not prefetched in time, so compute it on the calling thread
+            layout = computeMonth(year, month, firstDayOfWeek);
+            put(index, firstDayOfWeek, layout);
+        }
+        if (before != null) {
+            mPrefetchExecutor.execute(before);
+        }
+        if (after != null) {
+            mPrefetchExecutor.execute(after);
+        }
+        return layout;
+    }
+
+    /**
+     * Computes the layout of the given month without caching it.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     * @param firstDayOfWeek {@link Calendar#SUNDAY} through {@link Calendar#SATURDAY}
+     * @return Layout
+     */
+    public static int[] computeMonth(int year, int month, int firstDayOfWeek) {
+        checkArguments(month, firstDayOfWeek);
+        final int[] layout = new int[LAYOUT_SIZE];
+        final long monthStart = EpochMath.daysFromCivil(year, month, 1);
+        final int leading = (EpochMath.dayOfWeek(monthStart) - firstDayOfWeek + 7) % 7;
+        final long firstDay = monthStart - leading;
+
+        // Civil dates only change fields at month ends, so convert once per
+        // month and count up from there
+        int civil = EpochMath.civilFromDays(firstDay);
+        int length = EpochMath.lengthOfMonth(EpochMath.yearOf(civil), EpochMath.monthOf(civil));
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            layout[cell] = civil;
+            if (EpochMath.dayOf(civil) < length) {
+                civil++;
+            } else {
+                civil = EpochMath.civilFromDays(firstDay + cell + 1);
+                length = EpochMath.lengthOfMonth(EpochMath.yearOf(civil), EpochMath.monthOf(civil));
+            }
+        }
+
+        for (int row = 0; row < ROWS; row++) {
+            // A row is in the ISO week of its Thursday, as is its Monday
+            final long rowStart = firstDay + row * 7;
+            final long thursday = rowStart + (Calendar.THURSDAY - firstDayOfWeek + 7) % 7;
+            final int thursdayYear = EpochMath.yearOf(EpochMath.civilFromDays(thursday));
+            layout[WEEK_NUMBERS + row] = (int)((thursday
+                    - EpochMath.daysFromCivil(thursdayYear, Calendar.JANUARY, 1)) / 7) + 1;
+        }
+        layout[LEADING_DAYS] = leading;
+        layout[MONTH_LENGTH] = EpochMath.lengthOfMonth(year, month);
+        layout[FIRST_EPOCH_DAY] = (int)firstDay;
+        return layout;
+    }
+
+    public synchronized int size() {
+        return mLayouts.size();
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getPrefetchCount() {
+        return mPrefetchCount;
+    }
+
+    /**
+     * Removes all layouts and resets the hit, miss and prefetch counters.
+     */
+    public synchronized void clear() {
+        mLayouts.clear();
+        mHitCount = 0;
+        mMissCount = 0;
+        mPrefetchCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MonthLayoutEngine{size=" + mLayouts.size() + ", capacity=" + mCapacity
+                + ", hits=" + mHitCount + ", misses=" + mMissCount
+                + ", prefetches=" + mPrefetchCount + "}";
+    }
+
+    /**
+     * Marks the given month as being computed and gets a task to compute
+     * it on the prefetch executor, unless it is already cached or being
+     * computed. Must hold the lock.
+     *
+     * @return {@link PrefetchTask} to execute, or null
+     */
+    private PrefetchTask startPrefetch(long index, int firstDayOfWeek) {
+        mProbe.set(index, firstDayOfWeek);
+        if (mLayouts.containsKey(mProbe)) {
+            return null;
+        }
+        mLayouts.put(obtainKey(index, firstDayOfWeek), PENDING);
+        mPrefetchCount++;
+
+        final PrefetchTask task = (mFreeTaskCount > 0)
+                ? mFreeTasks[--mFreeTaskCount] : new PrefetchTask();
+        task.mMonthIndex = index;
+        task.mFirstDayOfWeek = firstDayOfWeek;
+        return task;
+    }
+
+    private synchronized void put(long index, int firstDayOfWeek, int[] layout) {
+        mProbe.set(index, firstDayOfWeek);
+        if (mLayouts.containsKey(mProbe)) {
+            // Replacing a value keeps the key already in the map
+            mLayouts.put(mProbe, layout);
+        } else {
+            mLayouts.put(obtainKey(index, firstDayOfWeek), layout);
+        }
+    }
+
+    private synchronized void recycleTask(PrefetchTask task) {
+        if (mFreeTaskCount < mFreeTasks.length) {
+            mFreeTasks[mFreeTaskCount++] = task;
+        }
+    }
+
+    /**
+     * Gets a key of the given month, reusing the key of an evicted month
+     * if there is one. Must hold the lock.
+     */
+    private Key obtainKey(long index, int firstDayOfWeek) {
+        final Key key = (mFreeKeyCount > 0) ? mFreeKeys[--mFreeKeyCount] : new Key();
+        key.set(index, firstDayOfWeek);
+        return key;
+    }
+
+    private void recycleKey(Key key) {
+        if (mFreeKeyCount < mFreeKeys.length) {
+            mFreeKeys[mFreeKeyCount++] = key;
+        }
+    }
+
+    private static void checkArguments(int month, int firstDayOfWeek) {
+        if (month < Calendar.JANUARY || month > Calendar.DECEMBER) {
+            throw new IllegalArgumentException("Month must be from 0 to 11!");
+        }
+        if (firstDayOfWeek < Calendar.SUNDAY || firstDayOfWeek > Calendar.SATURDAY) {
+            throw new IllegalArgumentException("First day of week must be from 1 to 7!");
+        }
+    }
+
+    private static ExecutorService newPrefetchExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, "MonthLayoutPrefetch");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+
+    /**
+     * Nested inner-class that is the cache key of a month, as months since
+     * year 0, and a first day of week.
+     */
+    private static final class Key {
+        long mMonthIndex;
+        int mFirstDayOfWeek;
+
+        void set(long monthIndex, int firstDayOfWeek) {
+            mMonthIndex = monthIndex;
+            mFirstDayOfWeek = firstDayOfWeek;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (!(o instanceof Key)) { return false; }
+            final Key other = (Key)o;
+            return mMonthIndex == other.mMonthIndex && mFirstDayOfWeek == other.mFirstDayOfWeek;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int)(mMonthIndex ^ (mMonthIndex >>> 32)) + mFirstDayOfWeek;
+        }
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link Runnable} that computes a
+     * month on the prefetch executor, and is reused once it is done.
+     */
+    private final class PrefetchTask implements Runnable {
+        long mMonthIndex;
+        int mFirstDayOfWeek;
+
+        @Override
+        public void run() {
+            final long index = mMonthIndex;
+            final int firstDayOfWeek = mFirstDayOfWeek;
+            recycleTask(this);
+            put(index, firstDayOfWeek, computeMonth((int)EpochMath.floorDiv(index, 12),
+                    (int)EpochMath.floorMod(index, 12), firstDayOfWeek));
+        }
+    }
+}
@@ -2,17 +2,18 @@ package com.tylersuehr.googlishdatetimepicker;
 
 import android.support.annotation.NonNull;
 
-import java.util.Calendar;
-
 /**
  * Copyright © 2017 Tyler Suehr
  *
  * Callbacks for datetime choosing events.
  *
+ * Implement {@link CalendarDateTimeChooseListener} instead to receive
+ * {@link java.util.Calendar} objects.
+ *
  * @author Tyler Suehr
  * @version 1.0
  */
 public interface OnDateTimeChooseListener {
-    void onDateChosen(@NonNull Calendar chosenDate);
-    void onTimeChosen(@NonNull Calendar chosenTime);
+    void onDateChosen(@NonNull DateTimeValue chosenDate);
+    void onTimeChosen(@NonNull DateTimeValue chosenTime);
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Implementation of {@link ClockDateTimeValidator} that also checks
+ * availability rules, each in O(log n) or better:
+ *
+ * - Blackout days, like holidays, as an {@link IntervalIndex} of local
+ *   epoch days. Dates on them are invalid.
+ * - Open hours, like business hours, as {@link WeeklyHours}. Times that do
+ *   not start within them are invalid.
+ * - Bookings, as an {@link IntervalIndex} of epoch millis. Times whose
+ *   appointment, of {@link #setDuration(long)}, overlaps one are invalid.
+ *
+ * The indices are used as they are, not copied, so bookings can be added
+ * and removed incrementally as they change. To validate on many threads,
+ * stop changing them first; the rules themselves can be swapped at any time.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public class RuleDateTimeValidator extends ClockDateTimeValidator {
+    private volatile IntervalIndex mBlackoutDays;
+    private volatile WeeklyHours mOpenHours;
+    private volatile IntervalIndex mBookings;
+    /* Length of a chosen appointment, 0 to only check its start */
+    private volatile long mDuration;
+
+
+    public RuleDateTimeValidator() {
+        super();
+    }
+
+    public RuleDateTimeValidator(@NonNull DateTimeClock clock) {
+        super(clock);
+    }
+
+    @Override
+    public boolean validateTime(@Nullable DateTimeValue chosenTime) {
+        return chosenTime != null && validateTime(
+                chosenTime.getEpochMillis(), chosenTime.getZoneOffsets());
+    }
+
+    /**
+     * Checks that the given instant falls on today or a later day that is
+     * not a blackout day, in the given time zone.
+     */
+    @Override
+    public boolean validateDate(long epochMillis, @NonNull ZoneOffsets zone) {
+        return super.validateDate(epochMillis, zone)
+                && !isBlackoutDay(zone.toLocalMillis(epochMillis));
+    }
+
+    /**
+     * Checks that the given instant falls after the current minute, within
+     * the open hours of the default time zone and without overlapping a
+     * booking. Prefer {@link #validateTime(long, ZoneOffsets)} when the
+     * time is chosen in another zone.
+     *
+     * @param epochMillis Instant to validate
+     * @return True if valid
+     */
+    @Override
+    public boolean validateTime(long epochMillis) {
+        return validateTime(epochMillis, ZoneOffsets.systemDefault());
+    }
+
+    /**
+     * Checks that the given instant falls after the current minute, within
+     * the open hours and without overlapping a booking.
+     *
+     * @param epochMillis Instant to validate
+     * @param zone Time zone the time is chosen in
+     * @return True if valid
+     */
+    public boolean validateTime(long epochMillis, @NonNull ZoneOffsets zone) {
+        return super.validateTime(epochMillis) && isAvailable(epochMillis, zone);
+    }
+
+    @Override
+    public void validateAll(@NonNull long[] epochMillis, @NonNull ZoneOffsets zone,
+                            @NonNull ValidationResults results) {
+        super.validateAll(epochMillis, zone, results);
+        for (int i = 0; i < epochMillis.length; i++) {
+            if (isBlackoutDay(zone.toLocalMillis(epochMillis[i]))) {
+                results.setInvalidDate(i);
+            }
+            if (!isAvailable(epochMillis[i], zone)) {
+                results.setInvalidTime(i);
+            }
+        }
+    }
+
+    /**
+     * Adds a blackout day, creating the blackout index if needed.
+     *
+     * @param year Year
+     * @param month Month (0-11)
+     * @param dayOfMonth Day of month
+     */
+    public void addBlackoutDay(int year, int month, int dayOfMonth) {
+        if (mBlackoutDays == null) {
+            mBlackoutDays = new IntervalIndex();
+        }
+        final long epochDay = EpochMath.daysFromCivil(year, month, dayOfMonth);
+        mBlackoutDays.add(epochDay, epochDay + 1);
+    }
+
+    /**
+     * Sets the blackout days, as intervals of local epoch days.
+     * @param blackoutDays {@link IntervalIndex}, or null for none
+     */
+    public void setBlackoutDays(@Nullable IntervalIndex blackoutDays) {
+        mBlackoutDays = blackoutDays;
+    }
+
+    @Nullable
+    public IntervalIndex getBlackoutDays() {
+        return mBlackoutDays;
+    }
+
+    /**
+     * Sets the hours that chosen times must start within.
+     * @param openHours {@link WeeklyHours}, or null to allow any time
+     */
+    public void setOpenHours(@Nullable WeeklyHours openHours) {
+        mOpenHours = openHours;
+    }
+
+    @Nullable
+    public WeeklyHours getOpenHours() {
+        return mOpenHours;
+    }
+
+    /**
+     * Sets the bookings that chosen times must not overlap, as intervals
+     * of epoch millis.
+     *
+     * @param bookings {@link IntervalIndex}, or null for none
+     */
+    public void setBookings(@Nullable IntervalIndex bookings) {
+        mBookings = bookings;
+    }
+
+    @Nullable
+    public IntervalIndex getBookings() {
+        return mBookings;
+    }
+
+    /**
+     * Sets the length of a chosen appointment, checked against bookings.
+     * @param durationMillis Length in millis, or 0 to only check its start
+     */
+    public void setDuration(long durationMillis) {
+        if (durationMillis < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative!");
+        }
+        mDuration = durationMillis;
+    }
+
+    public long getDuration() {
+        return mDuration;
+    }
+
+    private boolean isBlackoutDay(long localMillis) {
+        final IntervalIndex blackoutDays = mBlackoutDays;
+        return blackoutDays != null && blackoutDays.contains(
+                EpochMath.floorDiv(localMillis, EpochMath.MILLIS_PER_DAY));
+    }
+
+    private boolean isAvailable(long epochMillis, ZoneOffsets zone) {
+        final WeeklyHours openHours = mOpenHours;
+        if (openHours != null && !openHours.contains(zone.toLocalMillis(epochMillis))) {
+            return false;
+        }
+        final IntervalIndex bookings = mBookings;
+        if (bookings != null) {
+            final long duration = mDuration;
+            return (duration > 0)
+                    ? !bookings.overlaps(epochMillis, epochMillis + duration)
+                    : !bookings.contains(epochMillis);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,186 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Compact results of validating many dates and times at once, stored as
+ * two bitsets: one of invalid dates and one of invalid times.
+ *
+ * Validating does not touch any view. Once the results are in, apply them
+ * to the pickers that show the values with
+ * DateTimePickerLayout#showValidationErrors(int).
+ *
+ * Instances can be reused for many batches to avoid allocating, but are
+ * not thread-safe; use one per thread.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class ValidationResults {
+    /** Flag of an invalid date. */
+    public static final int INVALID_DATE = 1;
+    /** Flag of an invalid time. */
+    public static final int INVALID_TIME = 2;
+
+    private long[] mInvalidDates = new long[0];
+    private long[] mInvalidTimes = new long[0];
+    private int mSize;
+
+
+    /**
+     * Validates every instant with the given validator. Validators that
+     * implement {@link BatchDateTimeValidator} validate in one pass without
+     * allocating; others are given a {@link DateTimeValue} per instant.
+     *
+     * @param validator {@link DateTimeValidator}
+     * @param epochMillis Instants to validate
+     * @param zone Time zone the dates and times are chosen in
+     * @return {@link ValidationResults}
+     */
+    @NonNull
+    public static ValidationResults validate(@NonNull DateTimeValidator validator,
+                                             @NonNull long[] epochMillis,
+                                             @NonNull ZoneOffsets zone) {
+        final ValidationResults results = new ValidationResults();
+        if (validator instanceof BatchDateTimeValidator) {
+            ((BatchDateTimeValidator)validator).validateAll(epochMillis, zone, results);
+            return results;
+        }
+
+        results.reset(epochMillis.length);
+        final String zoneId = zone.getId();
+        for (int i = 0; i < epochMillis.length; i++) {
+            final DateTimeValue value = DateTimeValue.of(epochMillis[i], zoneId);
+            if (!validator.validateDate(value)) {
+                results.setInvalidDate(i);
+            }
+            if (!validator.validateTime(value)) {
+                results.setInvalidTime(i);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Clears all results and makes room for the given number of entries.
+     * @param size Number of entries
+     */
+    public void reset(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size cannot be negative!");
+        }
+        final int words = (size + 63) >>> 6;
+        if (mInvalidDates.length < words) {
+            mInvalidDates = new long[words];
+            mInvalidTimes = new long[words];
+        } else {
+            for (int i = 0; i < words; i++) {
+                mInvalidDates[i] = 0;
+                mInvalidTimes[i] = 0;
+            }
+        }
+        mSize = size;
+    }
+
+    public void setInvalidDate(int index) {
+        checkIndex(index);
+        mInvalidDates[index >>> 6] |= 1L << index;
+    }
+
+    public void setInvalidTime(int index) {
+        checkIndex(index);
+        mInvalidTimes[index >>> 6] |= 1L << index;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isValid(int index) {
+        return getInvalidFlags(index) == 0;
+    }
+
+    public boolean isDateValid(int index) {
+        checkIndex(index);
+        return (mInvalidDates[index >>> 6] & (1L << index)) == 0;
+    }
+
+    public boolean isTimeValid(int index) {
+        checkIndex(index);
+        return (mInvalidTimes[index >>> 6] & (1L << index)) == 0;
+    }
+
+    /**
+     * Gets what is invalid about an entry.
+     *
+     * @param index Index of the entry
+     * @return {@link #INVALID_DATE} and/or {@link #INVALID_TIME}, or 0 if valid
+     */
+    public int getInvalidFlags(int index) {
+        return (isDateValid(index) ? 0 : INVALID_DATE)
+                | (isTimeValid(index) ? 0 : INVALID_TIME);
+    }
+
+    /**
+     * Checks if every entry is valid.
+     * @return True if all valid
+     */
+    public boolean isAllValid() {
+        return nextInvalid(0) < 0;
+    }
+
+    /**
+     * Counts the entries with an invalid date or time.
+     * @return Number of invalid entries
+     */
+    public int getInvalidCount() {
+        final int words = (mSize + 63) >>> 6;
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            count += Long.bitCount(mInvalidDates[i] | mInvalidTimes[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the next entry with an invalid date or time.
+     *
+     * @param fromIndex Index to start searching from, inclusive
+     * @return Index of the entry, or -1 if there is none
+     */
+    public int nextInvalid(int fromIndex) {
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        if (fromIndex >= mSize) {
+            return -1;
+        }
+
+        final int words = (mSize + 63) >>> 6;
+        int w = fromIndex >>> 6;
+        long word = (mInvalidDates[w] | mInvalidTimes[w]) & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                final int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return (index < mSize) ? index : -1;
+            }
+            if (++w == words) {
+                return -1;
+            }
+            word = mInvalidDates[w] | mInvalidTimes[w];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResults{size=" + mSize + ", invalid=" + getInvalidCount() + "}";
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + mSize);
+        }
+    }
+}
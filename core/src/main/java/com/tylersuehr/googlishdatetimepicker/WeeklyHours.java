@@ -0,0 +1,82 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import java.util.Calendar;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Weekly recurring hours, like business hours, stored as a bitset with one
+ * bit per minute of the week so that checking a wall-clock time is a single
+ * bit test.
+ *
+ * Minutes of the week start at 0 on Sunday midnight, matching the order
+ * of the {@link Calendar} day of week constants.
+ *
+ * Once built, it only reads, so it can be shared between threads.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class WeeklyHours {
+    private static final int MINUTES_PER_WEEK = 7 * EpochMath.MINUTES_PER_DAY;
+
+    private final long[] mMinutes = new long[(MINUTES_PER_WEEK + 63) >>> 6];
+
+
+    /**
+     * Adds the same hours to every day from Monday to Friday.
+     *
+     * @param startMinute Start, in minutes after midnight, inclusive
+     * @param endMinute End, in minutes after midnight, exclusive
+     * @return This, for chaining
+     */
+    public WeeklyHours addWeekdays(int startMinute, int endMinute) {
+        for (int day = Calendar.MONDAY; day <= Calendar.FRIDAY; day++) {
+            add(day, startMinute, endMinute);
+        }
+        return this;
+    }
+
+    /**
+     * Adds hours to a day of the week.
+     *
+     * @param dayOfWeek {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}
+     * @param startMinute Start, in minutes after midnight, inclusive
+     * @param endMinute End, in minutes after midnight, exclusive; up to 1440
+     * @return This, for chaining
+     */
+    public WeeklyHours add(int dayOfWeek, int startMinute, int endMinute) {
+        if (dayOfWeek < Calendar.SUNDAY || dayOfWeek > Calendar.SATURDAY) {
+            throw new IllegalArgumentException("Invalid day of week: " + dayOfWeek);
+        }
+        if (startMinute < 0 || endMinute > EpochMath.MINUTES_PER_DAY || startMinute > endMinute) {
+            throw new IllegalArgumentException("Invalid minutes: " + startMinute + "-" + endMinute);
+        }
+        final int offset = (dayOfWeek - Calendar.SUNDAY) * EpochMath.MINUTES_PER_DAY;
+        for (int m = offset + startMinute; m < offset + endMinute; m++) {
+            mMinutes[m >>> 6] |= 1L << m;
+        }
+        return this;
+    }
+
+    /**
+     * Checks if the given wall-clock time falls within these hours.
+     *
+     * @param localMillis Epoch millis shifted into the local time zone
+     * @return True if within
+     */
+    public boolean contains(long localMillis) {
+        final long epochDay = EpochMath.floorDiv(localMillis, EpochMath.MILLIS_PER_DAY);
+        final int minuteOfDay = (int)(EpochMath.floorMod(localMillis, EpochMath.MILLIS_PER_DAY)
+                / EpochMath.MILLIS_PER_MINUTE);
+        final int m = (EpochMath.dayOfWeek(epochDay) - Calendar.SUNDAY)
+                * EpochMath.MINUTES_PER_DAY + minuteOfDay;
+        return (mMinutes[m >>> 6] & (1L << m)) != 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < mMinutes.length; i++) {
+            mMinutes[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Converts between instants and wall-clock times of a single time zone.
+ *
+ * Instances are cached per zone id and shared, which avoids the copy that
+ * {@link TimeZone#getTimeZone(String)} makes on every call.
+ *
+ * Offsets are looked up in a compact table of the zone's transitions, which
+ * is found once per year by probing the zone daily and bisecting each
+ * change down to the milli, then binary-searched. The table covers only the
+ * years that have been asked for, and grows as needed between 1900 and
+ * 2100; instants outside of that ask the {@link TimeZone} directly. Zones
+ * are assumed to not change their offset twice within a day.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class ZoneOffsets {
+    private static final ConcurrentMap<String, ZoneOffsets> sCache =
+            new ConcurrentHashMap<>();
+
+    /* Years covered at most by the transition tables */
+    private static final int MIN_YEAR = 1900;
+    private static final int MAX_YEAR = 2100;
+    private static final long MIN_MILLIS =
+            EpochMath.daysFromCivil(MIN_YEAR, 0, 1) * EpochMath.MILLIS_PER_DAY;
+    private static final long MAX_MILLIS =
+            EpochMath.daysFromCivil(MAX_YEAR, 0, 1) * EpochMath.MILLIS_PER_DAY;
+
+    private final String mId;
+    /* Never handed out, so it cannot be mutated by callers */
+    private final TimeZone mZone;
+    /* Replaced as a whole when it grows, so it can be read without locking */
+    private volatile Transitions mTransitions;
+
+
+    private ZoneOffsets(TimeZone zone) {
+        mId = zone.getID();
+        mZone = zone;
+    }
+
+    /**
+     * Gets the shared offsets of the given zone id. Unknown ids resolve
+     * to GMT, like {@link TimeZone#getTimeZone(String)}.
+     *
+     * @param zoneId Time zone id
+     * @return {@link ZoneOffsets}
+     */
+    @NonNull
+    public static ZoneOffsets forId(@NonNull String zoneId) {
+        ZoneOffsets offsets = sCache.get(zoneId);
+        if (offsets == null) {
+            offsets = new ZoneOffsets(TimeZone.getTimeZone(zoneId));
+            final ZoneOffsets existing = sCache.putIfAbsent(zoneId, offsets);
+            if (existing != null) {
+                offsets = existing;
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the shared offsets of the default time zone.
+     *
+     * This still reads {@link TimeZone#getDefault()}, which copies the zone,
+     * so that changes to the default are seen; hold on to the result rather
+     * than calling this on hot paths.
+     *
+     * @return {@link ZoneOffsets}
+     */
+    @NonNull
+    public static ZoneOffsets systemDefault() {
+        return forId(TimeZone.getDefault().getID());
+    }
+
+    @NonNull
+    public String getId() {
+        return mId;
+    }
+
+    /**
+     * Gets the total offset from UTC in effect at the given instant.
+     *
+     * @param epochMillis Instant
+     * @return Offset in millis
+     */
+    public int getOffset(long epochMillis) {
+        Transitions t = mTransitions;
+        if (t == null || epochMillis < t.mFrom || epochMillis >= t.mUntil) {
+            if (epochMillis < MIN_MILLIS || epochMillis >= MAX_MILLIS) {
+                return mZone.getOffset(epochMillis);
+            }
+            t = cover(epochMillis);
+        }
+        return t.getOffset(epochMillis);
+    }
+
+    /**
+     * Converts an instant into wall-clock millis.
+     *
+     * @param epochMillis Instant
+     * @return Epoch millis shifted into this zone
+     */
+    public long toLocalMillis(long epochMillis) {
+        return epochMillis + getOffset(epochMillis);
+    }
+
+    /**
+     * Converts wall-clock millis into an instant, using the offset in
+     * effect at that instant rather than the one in effect now.
+     *
+     * Wall-clock times skipped by a transition (a DST gap) are shifted
+     * forward by the length of the gap. Wall-clock times that happen twice
+     * (a DST overlap) resolve to the earlier instant.
+     *
+     * @param localMillis Epoch millis shifted into this zone
+     * @return Instant
+     */
+    public long toEpochMillis(long localMillis) {
+        // Transitions are assumed to be more than a day apart, so the
+        // offsets a day either side are the ones around any transition
+        final int before = getOffset(localMillis - EpochMath.MILLIS_PER_DAY);
+        final int after = getOffset(localMillis + EpochMath.MILLIS_PER_DAY);
+        final long early = localMillis - before;
+        if (before == after) {
+            return early;
+        }
+
+        final long late = localMillis - after;
+        final boolean earlyValid = getOffset(early) == before;
+        final boolean lateValid = getOffset(late) == after;
+        if (earlyValid && lateValid) {
+            return Math.min(early, late);
+        } else if (lateValid) {
+            return late;
+        }
+        return early;
+    }
+
+    /**
+     * Creates a new {@link TimeZone} of this zone.
+     * @return {@link TimeZone}
+     */
+    @NonNull
+    public TimeZone toTimeZone() {
+        return (TimeZone)mZone.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneOffsets{" + mId + "}";
+    }
+
+    /**
+     * Grows the transition table to cover the year of the given instant,
+     * along with every year between it and the years already covered.
+     */
+    private synchronized Transitions cover(long epochMillis) {
+        final Transitions old = mTransitions;
+        if (old != null && epochMillis >= old.mFrom && epochMillis < old.mUntil) {
+            return old; // Covered by another thread meanwhile
+        }
+
+        final int year = EpochMath.yearOf(EpochMath.civilFromDays(
+                EpochMath.floorDiv(epochMillis, EpochMath.MILLIS_PER_DAY)));
+        final long yearFrom = EpochMath.daysFromCivil(year, 0, 1) * EpochMath.MILLIS_PER_DAY;
+        final long yearUntil = EpochMath.daysFromCivil(year + 1, 0, 1) * EpochMath.MILLIS_PER_DAY;
+
+        final Transitions t;
+        if (old == null) {
+            t = scan(yearFrom, yearUntil);
+        } else if (yearFrom < old.mFrom) {
+            t = scan(yearFrom, old.mFrom).append(old);
+        } else {
+            t = old.append(scan(old.mUntil, yearUntil));
+        }
+        mTransitions = t;
+        return t;
+    }
+
+    /**
+     * Finds the transitions in the given range by probing the offset once
+     * a day and bisecting every change.
+     */
+    private Transitions scan(long from, long until) {
+        long[] times = new long[8];
+        int[] offsets = new int[8];
+        int count = 0;
+
+        int offset = mZone.getOffset(from);
+        times[count] = from;
+        offsets[count++] = offset;
+        for (long probe = from; probe < until; ) {
+            final long next = Math.min(probe + EpochMath.MILLIS_PER_DAY, until - 1);
+            final int nextOffset = mZone.getOffset(next);
+            if (nextOffset != offset) {
+                // The offset changes somewhere in (probe, next]
+                long lo = probe;
+                long hi = next;
+                while (hi - lo > 1) {
+                    final long mid = lo + ((hi - lo) >> 1);
+                    if (mZone.getOffset(mid) == offset) {
+                        lo = mid;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                if (count == times.length) {
+                    times = Arrays.copyOf(times, count << 1);
+                    offsets = Arrays.copyOf(offsets, count << 1);
+                }
+                times[count] = hi;
+                offsets[count++] = nextOffset;
+                offset = nextOffset;
+            }
+            if (next == until - 1) {
+                break;
+            }
+            probe = next;
+        }
+        return new Transitions(from, until,
+                Arrays.copyOf(times, count), Arrays.copyOf(offsets, count));
+    }
+
+
+    /**
+     * Immutable table of the offsets of a zone over [from, until): each
+     * offset is in effect from its time until the next time.
+     */
+    private static final class Transitions {
+        final long mFrom;
+        final long mUntil;
+        final long[] mTimes;
+        final int[] mOffsets;
+
+        Transitions(long from, long until, long[] times, int[] offsets) {
+            mFrom = from;
+            mUntil = until;
+            mTimes = times;
+            mOffsets = offsets;
+        }
+
+        int getOffset(long epochMillis) {
+            // Last transition at or before the instant
+            int lo = 0;
+            int hi = mTimes.length - 1;
+            while (lo < hi) {
+                final int mid = (lo + hi + 1) >>> 1;
+                if (mTimes[mid] <= epochMillis) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return mOffsets[lo];
+        }
+
+        /**
+         * Joins this table with the one that follows it, dropping the
+         * start of the latter if the offset does not change there.
+         */
+        Transitions append(Transitions next) {
+            final int skip = (next.mOffsets[0] == mOffsets[mOffsets.length - 1]) ? 1 : 0;
+            final int count = mTimes.length + next.mTimes.length - skip;
+            final long[] times = Arrays.copyOf(mTimes, count);
+            final int[] offsets = Arrays.copyOf(mOffsets, count);
+            System.arraycopy(next.mTimes, skip, times, mTimes.length, next.mTimes.length - skip);
+            System.arraycopy(next.mOffsets, skip, offsets, mOffsets.length, next.mOffsets.length - skip);
+            return new Transitions(mFrom, next.mUntil, times, offsets);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the cached "today" of {@link ClockDateTimeValidator} across zones
+ * and local midnights.
+ */
+public class ClockDateTimeValidatorTest {
+    /* 2018-01-01 12:00 UTC, already 2018-01-02 02:00 in Kiritimati (+14) */
+    private static final long NOW_MILLIS = 1514808000000L;
+    /* 2018-01-01 05:00 UTC, still 2018-01-01 19:00 in Kiritimati */
+    private static final long EARLY_MILLIS = NOW_MILLIS - 7 * 60 * EpochMath.MILLIS_PER_MINUTE;
+
+    private static final ZoneOffsets UTC = ZoneOffsets.forId("UTC");
+    private static final ZoneOffsets KIRITIMATI = ZoneOffsets.forId("Pacific/Kiritimati");
+
+    private final MutableClock mClock = new MutableClock(NOW_MILLIS);
+    private final ClockDateTimeValidator mValidator = new ClockDateTimeValidator(mClock);
+
+
+    @Test
+    public void validateDate_isTodayPerZone() {
+        // Alternate zones, so a single cached day would be wrong every time
+        for (int i = 0; i < 3; i++) {
+            assertTrue(mValidator.validateDate(EARLY_MILLIS, UTC));
+            assertFalse(mValidator.validateDate(EARLY_MILLIS, KIRITIMATI));
+        }
+    }
+
+    @Test
+    public void validateDate_afterMidnight_movesToday() {
+        assertTrue(mValidator.validateDate(EARLY_MILLIS, UTC));
+        mClock.mMillis = NOW_MILLIS + EpochMath.MILLIS_PER_DAY;
+        assertFalse(mValidator.validateDate(EARLY_MILLIS, UTC));
+    }
+
+    @Test
+    public void validateTime_isAfterCurrentMinute() {
+        assertFalse(mValidator.validateTime(NOW_MILLIS));
+        assertFalse(mValidator.validateTime(NOW_MILLIS + EpochMath.MILLIS_PER_MINUTE - 1));
+        assertTrue(mValidator.validateTime(NOW_MILLIS + EpochMath.MILLIS_PER_MINUTE));
+    }
+
+    @Test
+    public void validateAll_matchesSingleChecks() {
+        final long[] millis = {
+                EARLY_MILLIS - EpochMath.MILLIS_PER_DAY,
+                EARLY_MILLIS,
+                NOW_MILLIS + 60 * EpochMath.MILLIS_PER_MINUTE
+        };
+        final ValidationResults results = new ValidationResults();
+        for (ZoneOffsets zone : new ZoneOffsets[] { UTC, KIRITIMATI }) {
+            mValidator.validateAll(millis, zone, results);
+            for (int i = 0; i < millis.length; i++) {
+                assertEquals(mValidator.validateDate(millis[i], zone), results.isDateValid(i));
+                assertEquals(mValidator.validateTime(millis[i]), results.isTimeValid(i));
+            }
+        }
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link DateTimeClock} whose time
+     * can be moved.
+     */
+    private static final class MutableClock implements DateTimeClock {
+        long mMillis;
+
+        MutableClock(long millis) {
+            mMillis = millis;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return mMillis;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that choosing a date or time keeps the other chosen part, and that
+ * checking a selection treats parts that are not chosen as invalid.
+ */
+public class DateTimeSelectionTest {
+    /* 2018-01-01 12:00 UTC */
+    private static final long NOW_MILLIS = 1514808000000L;
+    private static final DateTimeClock CLOCK = new DateTimeClock() {
+        @Override
+        public long currentTimeMillis() {
+            return NOW_MILLIS;
+        }
+    };
+
+
+    @Test
+    public void of_withoutChosenParts_isNone() {
+        assertSame(DateTimeSelection.none(), DateTimeSelection.of(NOW_MILLIS, "UTC", 0));
+        assertSame(DateTimeSelection.none(), DateTimeSelection.of(null, DateTimeSelection.CHOSEN_DATE));
+    }
+
+    @Test
+    public void withDate_onNone_keepsTimeOfClock() {
+        final DateTimeSelection selection = DateTimeSelection.none()
+                .withDate(2018, Calendar.MARCH, 15, CLOCK, "UTC");
+        final DateTimeValue value = selection.getValue();
+        assertEquals(DateTimeSelection.CHOSEN_DATE, selection.getChosenFlags());
+        assertEquals(2018, value.getYear());
+        assertEquals(Calendar.MARCH, value.getMonth());
+        assertEquals(15, value.getDayOfMonth());
+        assertEquals(12, value.getHourOfDay());
+        assertEquals(0, value.getMinute());
+    }
+
+    @Test
+    public void withTime_keepsChosenDate() {
+        final DateTimeSelection selection = DateTimeSelection.none()
+                .withDate(2018, Calendar.MARCH, 15, CLOCK, "UTC")
+                .withTime(9, 30, CLOCK, "UTC");
+        final DateTimeValue value = selection.getValue();
+        assertTrue(selection.isDateChosen());
+        assertTrue(selection.isTimeChosen());
+        assertEquals(15, value.getDayOfMonth());
+        assertEquals(9, value.getHourOfDay());
+        assertEquals(30, value.getMinute());
+    }
+
+    @Test
+    public void check_partNotChosen_isInvalid() {
+        final DateTimeSelection selection = DateTimeSelection.none()
+                .withDate(2018, Calendar.MARCH, 15, CLOCK, "UTC");
+        assertEquals(ValidationResults.INVALID_TIME,
+                selection.check(new ClockDateTimeValidator(CLOCK)));
+        assertEquals(ValidationResults.INVALID_DATE | ValidationResults.INVALID_TIME,
+                DateTimeSelection.none().check(new ClockDateTimeValidator(CLOCK)));
+    }
+
+    @Test
+    public void check_pastDate_isInvalid() {
+        final DateTimeSelection selection = DateTimeSelection.of(
+                NOW_MILLIS - 2 * EpochMath.MILLIS_PER_DAY, "UTC",
+                DateTimeSelection.CHOSEN_DATE | DateTimeSelection.CHOSEN_TIME);
+        assertEquals(ValidationResults.INVALID_DATE | ValidationResults.INVALID_TIME,
+                selection.check(new ClockDateTimeValidator(CLOCK)));
+    }
+
+    @Test
+    public void check_futureValue_isValid() {
+        final DateTimeSelection selection = DateTimeSelection.of(
+                NOW_MILLIS + EpochMath.MILLIS_PER_DAY, "UTC",
+                DateTimeSelection.CHOSEN_DATE | DateTimeSelection.CHOSEN_TIME);
+        assertEquals(0, selection.check(new ClockDateTimeValidator(CLOCK)));
+    }
+}
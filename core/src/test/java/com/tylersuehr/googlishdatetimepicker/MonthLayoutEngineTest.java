@@ -0,0 +1,70 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks month layouts against {@link Calendar}, and that looking a month up
+ * again hits the cache.
+ */
+public class MonthLayoutEngineTest {
+    @Test
+    public void computeMonth_matchesCalendar() {
+        final Calendar c = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        for (int firstDayOfWeek = Calendar.SUNDAY; firstDayOfWeek <= Calendar.SATURDAY; firstDayOfWeek++) {
+            for (int year = 1999; year <= 2030; year++) {
+                for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+                    assertMatchesCalendar(c, year, month, firstDayOfWeek);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getMonth_again_hitsCache() {
+        final MonthLayoutEngine engine = new MonthLayoutEngine(3, null);
+        final int[] layout = engine.getMonth(2018, Calendar.MARCH, Calendar.MONDAY);
+        assertSame(layout, engine.getMonth(2018, Calendar.MARCH, Calendar.MONDAY));
+        assertEquals(1, engine.getHitCount());
+        assertEquals(1, engine.getMissCount());
+        assertEquals(0, engine.getPrefetchCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getMonth_invalidMonth_throws() {
+        MonthLayoutEngine.computeMonth(2018, 12, Calendar.MONDAY);
+    }
+
+    private static void assertMatchesCalendar(Calendar c, int year, int month, int firstDayOfWeek) {
+        final int[] layout = MonthLayoutEngine.computeMonth(year, month, firstDayOfWeek);
+        c.clear();
+        c.set(year, month, 1);
+        final int leading = (c.get(Calendar.DAY_OF_WEEK) - firstDayOfWeek + 7) % 7;
+        assertEquals(leading, layout[MonthLayoutEngine.LEADING_DAYS]);
+        assertEquals(c.getActualMaximum(Calendar.DAY_OF_MONTH), layout[MonthLayoutEngine.MONTH_LENGTH]);
+
+        // ISO weeks start on Monday, and the first has at least four days
+        c.setFirstDayOfWeek(Calendar.MONDAY);
+        c.setMinimalDaysInFirstWeek(4);
+        c.add(Calendar.DAY_OF_MONTH, -leading);
+        assertEquals(c.getTimeInMillis() / EpochMath.MILLIS_PER_DAY,
+                layout[MonthLayoutEngine.FIRST_EPOCH_DAY]);
+        // A row is in the ISO week of its Thursday
+        final int thursday = (Calendar.THURSDAY - firstDayOfWeek + 7) % 7;
+        for (int cell = 0; cell < MonthLayoutEngine.CELL_COUNT; cell++) {
+            final int civil = layout[cell];
+            assertEquals(c.get(Calendar.YEAR), EpochMath.yearOf(civil));
+            assertEquals(c.get(Calendar.MONTH), EpochMath.monthOf(civil));
+            assertEquals(c.get(Calendar.DAY_OF_MONTH), EpochMath.dayOf(civil));
+            if (cell % 7 == thursday) {
+                assertEquals(c.get(Calendar.WEEK_OF_YEAR),
+                        layout[MonthLayoutEngine.WEEK_NUMBERS + cell / 7]);
+            }
+            c.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.Dialog;
+import android.app.TimePickerDialog;
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.text.format.DateFormat;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Implementation of {@link TimeDialogCreateStrategy} that lets the user
+ * choose a time on a {@link ClockFaceView} in a plain dialog, which is much
+ * cheaper to open than a {@link TimePickerDialog}.
+ *
+ * The dialog shows the chosen time of the picker, or the current time, in
+ * the 12/24-hour mode of the system setting, and the time is chosen as soon
+ * as the minutes are released. The dialog and its clock face are created
+ * once per context and reused every time after.
+ *
+ * Usage:
+ * <pre>
+ *     picker.setTimeDialogCreateStrategy(new ClockFaceTimeStrategy(picker, 15));
+ * </pre>
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class ClockFaceTimeStrategy implements TimeDialogCreateStrategy,
+        ClockFaceView.OnTimeSelectedListener {
+    private final DateTimePickerLayout mPicker;
+    private final int mMinuteStep;
+    private final PickerDialogHost<ClockFaceView> mHost = new PickerDialogHost<ClockFaceView>() {
+        @Override
+        ClockFaceView onCreateView(Context c) {
+            final ClockFaceView clock = new ClockFaceView(c);
+            clock.setMinuteStep(mMinuteStep);
+            clock.setOnTimeSelectedListener(ClockFaceTimeStrategy.this);
+            return clock;
+        }
+    };
+
+    private TimePickerDialog.OnTimeSetListener mListener;
+
+
+    public ClockFaceTimeStrategy(@NonNull DateTimePickerLayout picker) {
+        this(picker, 1);
+    }
+
+    /**
+     * Constructs a strategy whose minutes snap to the given step.
+     *
+     * @param picker {@link DateTimePickerLayout} to show the time of
+     * @param minuteStep Minutes, from 1 to 30
+     */
+    public ClockFaceTimeStrategy(@NonNull DateTimePickerLayout picker, int minuteStep) {
+        if (minuteStep < 1 || minuteStep > 30) {
+            throw new IllegalArgumentException("Minute step must be from 1 to 30!");
+        }
+        mPicker = picker;
+        mMinuteStep = minuteStep;
+    }
+
+    @Override
+    public Dialog createDialog(Context c, TimePickerDialog.OnTimeSetListener listener) {
+        final PickerMetrics metrics = DateTimePickerLayout.getMetrics();
+        final long start = (metrics != null) ? System.nanoTime() : 0L;
+        final ClockFaceView clock = mHost.obtainView(c);
+        mListener = listener;
+
+        DateTimeValue initial = mPicker.getChosenValue();
+        if (initial == null || (mPicker.getChosenFlags() & DateTimePickerLayout.CHOSEN_TIME) == 0) {
+            initial = DateTimeValue.of(mPicker.getDateTimeClock().currentTimeMillis(),
+                    mPicker.getTimeZoneId());
+        }
+        clock.set24HourView(DateFormat.is24HourFormat(c));
+        clock.setTime(initial.getHourOfDay(), initial.getMinute());
+        clock.setShowingMinutes(false);
+        if (metrics != null) {
+            metrics.onEvent(PickerMetrics.EVENT_DIALOG_CREATE, System.nanoTime() - start);
+        }
+        return mHost.getDialog();
+    }
+
+    @Override
+    public void onTimeSelected(ClockFaceView view, int hourOfDay, int minute) {
+        mHost.dismiss();
+        if (mListener != null) {
+            // There is no framework time picker to pass along
+            mListener.onTimeSet(null, hourOfDay, minute);
+        }
+    }
+}
@@ -0,0 +1,649 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Bundle;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.util.AttributeSet;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+
+import java.text.DateFormatSymbols;
+import java.util.List;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * A clock face drawn by a single view, like the one of the Material time
+ * picker, to choose a time without inflating the framework
+ * {@link android.widget.TimePicker}.
+ *
+ * The header shows the time, and tapping its hours or minutes shows them
+ * on the face. Dragging on the face moves the hand; releasing it on the
+ * hours moves on to the minutes, and releasing it on the minutes selects
+ * the time. In 24-hour mode, the hours 00 and 13 through 23 are on an
+ * inner ring; in 12-hour mode, the header has AM and PM to toggle.
+ * Minutes snap to a step, like 5 or 15 minutes.
+ *
+ * The positions of the ticks are computed once per size, and the text
+ * drawn is created up front, so neither dragging nor drawing allocates.
+ *
+ * The hours and minutes of the header, AM and PM, and the labels shown on
+ * the face are exposed to accessibility services as virtual views, which
+ * can also be moved between with a D-pad or keyboard and clicked with its
+ * center or enter key. Clicking a label works like releasing the hand on it.
+ *
+ * This can be used inline in a layout, or in a dialog by
+ * {@link ClockFaceTimeStrategy}.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public class ClockFaceView extends View {
+    private static final int TICKS = 12;
+    private static final int POSITIONS = 60;
+    /* Unit circle of the 60 positions of the face, clockwise from 12 */
+    private static final float[] sUnitX = new float[POSITIONS];
+    private static final float[] sUnitY = new float[POSITIONS];
+    /* Two-digit numbers, and numbers without padding */
+    private static final String[] sTwoDigits = new String[POSITIONS];
+    private static final String[] sNumbers = new String[24];
+
+    static {
+        for (int i = 0; i < POSITIONS; i++) {
+            final double angle = i * 2 * Math.PI / POSITIONS;
+            sUnitX[i] = (float)Math.sin(angle);
+            sUnitY[i] = (float)-Math.cos(angle);
+            sTwoDigits[i] = (i < 10) ? "0" + i : Integer.toString(i);
+        }
+        for (int i = 0; i < sNumbers.length; i++) {
+            sNumbers[i] = Integer.toString(i);
+        }
+    }
+
+    private final String[] mAmPm;
+    private final ClockAccessibilityHelper mAccessibilityHelper;
+    private final Paint mHeaderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mFacePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mHandPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final int mTextColor;
+    private final int mHeaderHeight;
+    private final int mFaceSize;
+
+    private int mHourOfDay;
+    private int mMinute;
+    private int mMinuteStep = 1;
+    private boolean mIs24Hour;
+    private boolean mShowingMinutes;
+    private OnTimeSelectedListener mListener;
+
+    /* Geometry of the face, computed when the size of this view changes */
+    private float mCenterX;
+    private float mCenterY;
+    private float mOuterRadius;
+    private float mInnerRadius;
+    private float mSelectorRadius;
+    private final float[] mOuterX = new float[TICKS];
+    private final float[] mOuterY = new float[TICKS];
+    private final float[] mInnerX = new float[TICKS];
+    private final float[] mInnerY = new float[TICKS];
+    /* Left of the AM/PM labels in the header */
+    private float mAmPmLeft;
+
+    /* True while the hand is being dragged */
+    private boolean mDragging;
+
+
+    public ClockFaceView(Context context) {
+        this(context, null);
+    }
+
+    public ClockFaceView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public ClockFaceView(Context c, AttributeSet attrs, int defStyleAttr) {
+        super(c, attrs, defStyleAttr);
+        final float density = getResources().getDisplayMetrics().density;
+        final float scaledDensity = getResources().getDisplayMetrics().scaledDensity;
+        mHeaderHeight = (int)(80f * density);
+        mFaceSize = (int)(256f * density);
+        mAmPm = DateFormatSymbols.getInstance(LocalizedFormatCache.getLocale(c)).getAmPmStrings();
+
+        final TypedArray a = c.obtainStyledAttributes(new int[] {
+                android.R.attr.textColorPrimary, R.attr.colorAccent });
+        mTextColor = a.getColor(0, Color.BLACK);
+        final int accentColor = a.getColor(1, 0xFF3F51B5);
+        a.recycle();
+
+        mHeaderPaint.setTextSize(40f * scaledDensity);
+        mLabelPaint.setTextAlign(Paint.Align.CENTER);
+        mLabelPaint.setTextSize(14f * scaledDensity);
+        mFacePaint.setColor(0x1F000000);
+        mHandPaint.setColor(accentColor);
+        mHandPaint.setStrokeWidth(2f * density);
+        mAccessibilityHelper = new ClockAccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+        setClickable(true);
+        setFocusable(true);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = resolveSize(mFaceSize + getPaddingLeft() + getPaddingRight(),
+                widthMeasureSpec);
+        final int height = resolveSize(mHeaderHeight + mFaceSize
+                + getPaddingTop() + getPaddingBottom(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        final int left = getPaddingLeft();
+        final int top = getPaddingTop() + mHeaderHeight;
+        final int faceWidth = w - left - getPaddingRight();
+        final int faceHeight = h - top - getPaddingBottom();
+        mCenterX = left + faceWidth / 2f;
+        mCenterY = top + faceHeight / 2f;
+        mOuterRadius = Math.min(faceWidth, faceHeight) / 2f;
+        mSelectorRadius = mOuterRadius * 0.14f;
+        mInnerRadius = mOuterRadius - 3.2f * mSelectorRadius;
+        mAmPmLeft = w - getPaddingRight() - 2 * mSelectorRadius - Math.max(
+                mLabelPaint.measureText(mAmPm[0]), mLabelPaint.measureText(mAmPm[1]));
+
+        // Ticks of the labels, inset so the selector fits around them
+        final float outer = mOuterRadius - 1.2f * mSelectorRadius;
+        for (int i = 0; i < TICKS; i++) {
+            final int position = i * POSITIONS / TICKS;
+            mOuterX[i] = mCenterX + outer * sUnitX[position];
+            mOuterY[i] = mCenterY + outer * sUnitY[position];
+            mInnerX[i] = mCenterX + mInnerRadius * sUnitX[position];
+            mInnerY[i] = mCenterY + mInnerRadius * sUnitY[position];
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        drawHeader(canvas);
+        canvas.drawCircle(mCenterX, mCenterY, mOuterRadius, mFacePaint);
+
+        // The hand, drawn under the labels
+        final float handX;
+        final float handY;
+        if (mShowingMinutes) {
+            final float radius = mOuterRadius - 1.2f * mSelectorRadius;
+            handX = mCenterX + radius * sUnitX[mMinute];
+            handY = mCenterY + radius * sUnitY[mMinute];
+        } else {
+            final int tick = mHourOfDay % TICKS;
+            final boolean inner = mIs24Hour && (mHourOfDay == 0 || mHourOfDay > 12);
+            handX = inner ? mInnerX[tick] : mOuterX[tick];
+            handY = inner ? mInnerY[tick] : mOuterY[tick];
+        }
+        canvas.drawLine(mCenterX, mCenterY, handX, handY, mHandPaint);
+        canvas.drawCircle(mCenterX, mCenterY, mSelectorRadius * 0.2f, mHandPaint);
+        canvas.drawCircle(handX, handY, mSelectorRadius, mHandPaint);
+
+        final float textOffset = (mLabelPaint.descent() + mLabelPaint.ascent()) / 2f;
+        for (int i = 0; i < TICKS; i++) {
+            if (mShowingMinutes) {
+                drawLabel(canvas, sTwoDigits[i * 5], mOuterX[i], mOuterY[i] - textOffset,
+                        mMinute == i * 5);
+            } else {
+                final int outerHour = (i == 0) ? 12 : i;
+                drawLabel(canvas, sNumbers[outerHour], mOuterX[i], mOuterY[i] - textOffset,
+                        !mIs24Hour ? (mHourOfDay % 12 == i) : (mHourOfDay == outerHour));
+                if (mIs24Hour) {
+                    final int innerHour = (i == 0) ? 0 : i + 12;
+                    drawLabel(canvas, sTwoDigits[innerHour], mInnerX[i],
+                            mInnerY[i] - textOffset, mHourOfDay == innerHour);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled()) {
+            return false;
+        }
+        final float x = event.getX();
+        final float y = event.getY();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDragging = y >= getPaddingTop() + mHeaderHeight;
+                if (mDragging) {
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                    moveHand(x, y);
+                }
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (mDragging) {
+                    moveHand(x, y);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                performClick();
+                if (!mDragging) {
+                    onHeaderTap(x, y);
+                } else {
+                    mDragging = false;
+                    onHandReleased();
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                mDragging = false;
+                return true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        // Taps are handled by what they hit, but still count as clicks
+        return super.performClick();
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibilityHelper.dispatchHoverEvent(event)
+                || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mAccessibilityHelper.dispatchKeyEvent(event)
+                || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        mAccessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /**
+     * Sets the shown time, snapping the minute to the minute step. Minutes
+     * that snap to the next hour move the hour along.
+     *
+     * @param hourOfDay Hour of day (0-23)
+     * @param minute Minute of hour
+     */
+    public void setTime(int hourOfDay, int minute) {
+        final int snapped = snapMinute(minute);
+        mHourOfDay = (snapped == POSITIONS) ? (hourOfDay + 1) % 24 : hourOfDay;
+        mMinute = snapped % POSITIONS;
+        mAccessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    public int getHourOfDay() {
+        return mHourOfDay;
+    }
+
+    public int getMinute() {
+        return mMinute;
+    }
+
+    /**
+     * Sets the step that chosen minutes snap to, like 5 or 15.
+     *
+     * @param step Minutes, from 1 to 30
+     */
+    public void setMinuteStep(int step) {
+        if (step < 1 || step > 30) {
+            throw new IllegalArgumentException("Minute step must be from 1 to 30!");
+        }
+        mMinuteStep = step;
+        setTime(mHourOfDay, mMinute);
+    }
+
+    public int getMinuteStep() {
+        return mMinuteStep;
+    }
+
+    public void set24HourView(boolean is24Hour) {
+        mIs24Hour = is24Hour;
+        mAccessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    public boolean is24HourView() {
+        return mIs24Hour;
+    }
+
+    /**
+     * Shows the minutes or the hours on the face.
+     *
+     * @param showMinutes True to show the minutes
+     */
+    public void setShowingMinutes(boolean showMinutes) {
+        mShowingMinutes = showMinutes;
+        mAccessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    public boolean isShowingMinutes() {
+        return mShowingMinutes;
+    }
+
+    public void setOnTimeSelectedListener(@Nullable OnTimeSelectedListener listener) {
+        mListener = listener;
+    }
+
+    @ColorInt
+    public int getHandColor() {
+        return mHandPaint.getColor();
+    }
+
+    public void setHandColor(@ColorInt int color) {
+        mHandPaint.setColor(color);
+        invalidate();
+    }
+
+    private void drawHeader(Canvas canvas) {
+        final float y = getPaddingTop() + mHeaderHeight / 2f
+                - (mHeaderPaint.descent() + mHeaderPaint.ascent()) / 2f;
+        final float colonWidth = mHeaderPaint.measureText(":");
+        final String hours = getHeaderHours();
+
+        mHeaderPaint.setTextAlign(Paint.Align.RIGHT);
+        mHeaderPaint.setColor(mShowingMinutes ? mTextColor : mHandPaint.getColor());
+        canvas.drawText(hours, mCenterX - colonWidth / 2f, y, mHeaderPaint);
+        mHeaderPaint.setTextAlign(Paint.Align.CENTER);
+        mHeaderPaint.setColor(mTextColor);
+        canvas.drawText(":", mCenterX, y, mHeaderPaint);
+        mHeaderPaint.setTextAlign(Paint.Align.LEFT);
+        mHeaderPaint.setColor(mShowingMinutes ? mHandPaint.getColor() : mTextColor);
+        canvas.drawText(sTwoDigits[mMinute], mCenterX + colonWidth / 2f, y, mHeaderPaint);
+
+        if (!mIs24Hour) {
+            // AM above PM, the current one in the hand color
+            final float middle = getPaddingTop() + mHeaderHeight / 2f;
+            final float x = (mAmPmLeft + getWidth() - getPaddingRight()) / 2f;
+            final boolean pm = mHourOfDay >= 12;
+            mLabelPaint.setColor(pm ? mTextColor : mHandPaint.getColor());
+            canvas.drawText(mAmPm[0], x, middle - mLabelPaint.descent(), mLabelPaint);
+            mLabelPaint.setColor(pm ? mHandPaint.getColor() : mTextColor);
+            canvas.drawText(mAmPm[1], x, middle - mLabelPaint.ascent(), mLabelPaint);
+        }
+    }
+
+    private void drawLabel(Canvas canvas, String label, float x, float y, boolean selected) {
+        mLabelPaint.setColor(selected ? Color.WHITE : mTextColor);
+        canvas.drawText(label, x, y, mLabelPaint);
+    }
+
+    private void onHeaderTap(float x, float y) {
+        if (!mIs24Hour && x >= mAmPmLeft) {
+            setPm(y >= getPaddingTop() + mHeaderHeight / 2f);
+        } else {
+            setShowingMinutes(x >= mCenterX);
+        }
+        playSoundEffect(SoundEffectConstants.CLICK);
+    }
+
+    /**
+     * Toggles to AM or PM, keeping the hour of the half day.
+     */
+    private void setPm(boolean pm) {
+        mHourOfDay = mHourOfDay % 12 + (pm ? 12 : 0);
+        mAccessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    /**
+     * Moves on to the minutes once the hours are chosen, or selects the
+     * time once the minutes are.
+     */
+    private void onHandReleased() {
+        if (!mShowingMinutes) {
+            setShowingMinutes(true);
+            return;
+        }
+        playSoundEffect(SoundEffectConstants.CLICK);
+        if (mListener != null) {
+            mListener.onTimeSelected(this, mHourOfDay, mMinute);
+        }
+    }
+
+    /**
+     * Moves the hand to the value nearest to the given touch.
+     */
+    private void moveHand(float x, float y) {
+        final float dx = x - mCenterX;
+        final float dy = y - mCenterY;
+        // Clockwise angle from 12, as a fraction of a turn
+        double turn = Math.atan2(dx, -dy) / (2 * Math.PI);
+        if (turn < 0) {
+            turn += 1;
+        }
+
+        if (mShowingMinutes) {
+            final int minute = snapMinute((int)Math.round(turn * POSITIONS)) % POSITIONS;
+            if (minute != mMinute) {
+                mMinute = minute;
+                invalidate();
+            }
+            return;
+        }
+
+        final int tick = (int)Math.round(turn * TICKS) % TICKS;
+        final int hour = hourOfTick(tick, isInnerRing(dx, dy));
+        if (hour != mHourOfDay) {
+            mHourOfDay = hour;
+            invalidate();
+        }
+    }
+
+    /**
+     * Gets the hour of day shown at a tick, on the inner ring in 24-hour
+     * mode, or in the current half day in 12-hour mode.
+     */
+    private int hourOfTick(int tick, boolean inner) {
+        if (mIs24Hour) {
+            return inner ? ((tick == 0) ? 0 : tick + 12) : ((tick == 0) ? 12 : tick);
+        }
+        return tick + ((mHourOfDay >= 12) ? 12 : 0);
+    }
+
+    /**
+     * Checks if a touch at the given offset from the center is closer to the
+     * inner ring of hours than to the outer ring, in 24-hour mode.
+     */
+    private boolean isInnerRing(float dx, float dy) {
+        final float distance = (float)Math.sqrt(dx * dx + dy * dy);
+        return mIs24Hour && distance < (mInnerRadius + mOuterRadius - 1.2f * mSelectorRadius) / 2f;
+    }
+
+    /**
+     * Gets the text of the hours shown in the header.
+     */
+    private String getHeaderHours() {
+        return mIs24Hour
+                ? sTwoDigits[mHourOfDay]
+                : sNumbers[(mHourOfDay % 12 == 0) ? 12 : mHourOfDay % 12];
+    }
+
+    /**
+     * Snaps a minute to the nearest step, or to 60 if that is past the hour.
+     */
+    private int snapMinute(int minute) {
+        return Math.min(POSITIONS, Math.round((float)minute / mMinuteStep) * mMinuteStep);
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link ExploreByTouchHelper} that
+     * exposes the header, AM and PM, and the labels shown on the face as
+     * virtual views, so that they can be explored, focused and clicked.
+     */
+    private final class ClockAccessibilityHelper extends ExploreByTouchHelper {
+        static final int HOURS_ID = 0;
+        static final int MINUTES_ID = 1;
+        static final int AM_ID = 2;
+        static final int PM_ID = 3;
+        /* Labels are identified by this plus their hour of day or minute */
+        static final int LABEL_ID_BASE = 4;
+
+        private final Rect mBounds = new Rect();
+
+
+        ClockAccessibilityHelper() {
+            super(ClockFaceView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            if (y < getPaddingTop()) {
+                return INVALID_ID;
+            }
+            if (y < getPaddingTop() + mHeaderHeight) {
+                if (!mIs24Hour && x >= mAmPmLeft) {
+                    return (y >= getPaddingTop() + mHeaderHeight / 2f) ? PM_ID : AM_ID;
+                }
+                return (x >= mCenterX) ? MINUTES_ID : HOURS_ID;
+            }
+            final float dx = x - mCenterX;
+            final float dy = y - mCenterY;
+            final float distance = (float)Math.sqrt(dx * dx + dy * dy);
+            if (distance > mOuterRadius) {
+                return INVALID_ID;
+            }
+            double turn = Math.atan2(dx, -dy) / (2 * Math.PI);
+            if (turn < 0) {
+                turn += 1;
+            }
+            final int tick = (int)Math.round(turn * TICKS) % TICKS;
+            if (mShowingMinutes) {
+                return LABEL_ID_BASE + tick * 5;
+            }
+            return LABEL_ID_BASE + hourOfTick(tick, isInnerRing(dx, dy));
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            virtualViewIds.add(HOURS_ID);
+            virtualViewIds.add(MINUTES_ID);
+            if (!mIs24Hour) {
+                virtualViewIds.add(AM_ID);
+                virtualViewIds.add(PM_ID);
+            }
+            for (int tick = 0; tick < TICKS; tick++) {
+                if (mShowingMinutes) {
+                    virtualViewIds.add(LABEL_ID_BASE + tick * 5);
+                } else {
+                    virtualViewIds.add(LABEL_ID_BASE + hourOfTick(tick, false));
+                    if (mIs24Hour) {
+                        virtualViewIds.add(LABEL_ID_BASE + hourOfTick(tick, true));
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId,
+                                                    @NonNull AccessibilityNodeInfoCompat node) {
+            final int top = getPaddingTop();
+            final int middle = top + mHeaderHeight / 2;
+            switch (virtualViewId) {
+                case HOURS_ID:
+                    node.setText(getHeaderHours());
+                    node.setContentDescription(getResources().getString(R.string.dtp_select_hours));
+                    node.setSelected(!mShowingMinutes);
+                    mBounds.set(getPaddingLeft(), top, (int)mCenterX, top + mHeaderHeight);
+                    break;
+                case MINUTES_ID:
+                    node.setText(sTwoDigits[mMinute]);
+                    node.setContentDescription(getResources().getString(R.string.dtp_select_minutes));
+                    node.setSelected(mShowingMinutes);
+                    mBounds.set((int)mCenterX, top, mIs24Hour
+                            ? getWidth() - getPaddingRight() : (int)mAmPmLeft, top + mHeaderHeight);
+                    break;
+                case AM_ID:
+                case PM_ID:
+                    final boolean pm = virtualViewId == PM_ID;
+                    node.setText(mAmPm[pm ? 1 : 0]);
+                    node.setSelected(pm == (mHourOfDay >= 12));
+                    mBounds.set((int)mAmPmLeft, pm ? middle : top,
+                            getWidth() - getPaddingRight(), pm ? top + mHeaderHeight : middle);
+                    break;
+                default:
+                    final int value = virtualViewId - LABEL_ID_BASE;
+                    final int tick = value % TICKS;
+                    final boolean inner = !mShowingMinutes && mIs24Hour && (value == 0 || value > 12);
+                    final float x;
+                    final float y;
+                    if (mShowingMinutes) {
+                        node.setText(sTwoDigits[value]);
+                        node.setSelected(value == mMinute);
+                        x = mOuterX[value / 5];
+                        y = mOuterY[value / 5];
+                    } else {
+                        node.setText(inner ? sTwoDigits[value]
+                                : sNumbers[(!mIs24Hour && tick == 0) ? 12 : mIs24Hour ? value : tick]);
+                        node.setSelected(value == mHourOfDay);
+                        x = inner ? mInnerX[tick] : mOuterX[tick];
+                        y = inner ? mInnerY[tick] : mOuterY[tick];
+                    }
+                    mBounds.set((int)(x - mSelectorRadius), (int)(y - mSelectorRadius),
+                            (int)(x + mSelectorRadius), (int)(y + mSelectorRadius));
+                    break;
+            }
+            node.setBoundsInParent(mBounds);
+            node.setFocusable(true);
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action,
+                                                        @Nullable Bundle arguments) {
+            if (action != AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                return false;
+            }
+            switch (virtualViewId) {
+                case HOURS_ID:
+                case MINUTES_ID:
+                    setShowingMinutes(virtualViewId == MINUTES_ID);
+                    break;
+                case AM_ID:
+                case PM_ID:
+                    setPm(virtualViewId == PM_ID);
+                    break;
+                default:
+                    final int value = virtualViewId - LABEL_ID_BASE;
+                    if (mShowingMinutes) {
+                        setTime(mHourOfDay, value);
+                    } else {
+                        mHourOfDay = value;
+                        invalidate();
+                    }
+                    onHandReleased();
+                    break;
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Listener of times selected by the user on a {@link ClockFaceView}.
+     */
+    public interface OnTimeSelectedListener {
+        void onTimeSelected(ClockFaceView view, int hourOfDay, int minute);
+    }
+}
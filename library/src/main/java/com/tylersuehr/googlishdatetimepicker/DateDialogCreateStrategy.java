@@ -0,0 +1,23 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.DatePickerDialog;
+import android.app.Dialog;
+import android.content.Context;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Strategy to handle creating any dialog to choose a date, used by the
+ * {@link DateTimePickerLayout} instead of its {@link DatePickerCreateStrategy}
+ * when set.
+ *
+ * The dialog does not have to be a {@link DatePickerDialog}, like the one of
+ * {@link MonthGridDateStrategy}, as long as it calls the listener with the
+ * chosen date.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public interface DateDialogCreateStrategy {
+    Dialog createDialog(Context c, DatePickerDialog.OnDateSetListener listener);
+}
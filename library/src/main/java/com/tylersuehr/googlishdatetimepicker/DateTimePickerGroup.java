@@ -0,0 +1,334 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Links any number of {@link DateTimePickerLayout}s, like the start and end
+ * of a booking, with constraints on the time between two of them: an order,
+ * or a min and max duration. When the user chooses a date or time on one
+ * picker, the pickers linked to it are moved as little as needed to satisfy
+ * their constraints, and so on along the links.
+ *
+ * Changes are propagated incrementally: only the pickers linked to a picker
+ * that moved are looked at, and each picker moves at most once per change.
+ * Links cannot form cycles, so that moving each picker once along the links
+ * always satisfies them; two pickers are linked by at most one constraint,
+ * directly or through other pickers. All the new values are computed
+ * before any picker is bound, so the moved pickers are laid out together in
+ * the next layout pass. Pickers with nothing chosen are neither moved nor
+ * moved through.
+ *
+ * A constraint can also keep its duration, so that moving the first picker
+ * moves the second by the same amount, like moving the start of an event
+ * moves its end. Choosing a picker that had nothing chosen, or setting it
+ * in code, does not move the pickers linked to it by a kept duration.
+ *
+ * The group listens to the pickers with
+ * {@link DateTimePickerLayout#addOnDateTimeChooseListener(OnDateTimeChooseListener)},
+ * so it has to be set up again after a picker is unbound.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class DateTimePickerGroup {
+    /** Max duration of a constraint without an upper bound. */
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private DateTimePickerLayout[] mPickers = new DateTimePickerLayout[0];
+    /* Last value of each picker known to the group, in epoch millis */
+    private long[] mMillis = new long[0];
+    /* True if the last value known to the group was chosen, so that moves
+       are only measured from chosen values */
+    private boolean[] mChosen = new boolean[0];
+    /* Parent of each picker in the forest of links, to reject cycles */
+    private int[] mRoots = new int[0];
+    /* Constraint indices of each picker */
+    private int[][] mLinks = new int[0][];
+
+    /* Constraints as parallel arrays: second - first within [min, max] */
+    private int[] mFirsts = new int[0];
+    private int[] mSeconds = new int[0];
+    private long[] mMins = new long[0];
+    private long[] mMaxes = new long[0];
+    private boolean[] mKeeps = new boolean[0];
+
+    /* Scratch state of a propagation, reused to avoid allocating */
+    private int[] mQueue = new int[0];
+    private long[] mDeltas = new long[0];
+    private int[] mVisited = new int[0];
+    private int mVisitStamp;
+
+
+    /**
+     * Adds a picker to this group.
+     *
+     * @param picker {@link DateTimePickerLayout}
+     * @return Index of the picker, to link it by
+     */
+    public int addPicker(@NonNull DateTimePickerLayout picker) {
+        final int index = mPickers.length;
+        mPickers = Arrays.copyOf(mPickers, index + 1);
+        mPickers[index] = picker;
+        mMillis = Arrays.copyOf(mMillis, index + 1);
+        mMillis[index] = picker.getChosenEpochMinute() * EpochMath.MILLIS_PER_MINUTE;
+        mChosen = Arrays.copyOf(mChosen, index + 1);
+        mChosen[index] = picker.getChosenFlags() != 0;
+        mRoots = Arrays.copyOf(mRoots, index + 1);
+        mRoots[index] = index;
+        mLinks = Arrays.copyOf(mLinks, index + 1);
+        mLinks[index] = new int[0];
+        mQueue = new int[index + 1];
+        mDeltas = new long[index + 1];
+        mVisited = Arrays.copyOf(mVisited, index + 1);
+
+        final Member member = new Member(index);
+        picker.addOnDateTimeChooseListener(member);
+        picker.addOnDateTimeChangeListener(member);
+        return index;
+    }
+
+    /**
+     * Links two pickers so that the second is never before the first.
+     *
+     * @param first Index of the first picker
+     * @param second Index of the second picker
+     *
+     * @throws IllegalArgumentException if the pickers are already linked,
+     *         directly or through other pickers
+     */
+    public void addOrdering(int first, int second) {
+        addDuration(first, second, 0, UNBOUNDED, false);
+    }
+
+    /**
+     * Links two pickers so that the time from the first to the second is
+     * within the given durations.
+     *
+     * @param first Index of the first picker
+     * @param second Index of the second picker
+     * @param minMillis Min duration, in millis; negative to allow the
+     *                  second before the first
+     * @param maxMillis Max duration, in millis, or {@link #UNBOUNDED}
+     * @param keepDuration True if moving the first picker should move the
+     *                     second by the same amount
+     *
+     * @throws IllegalArgumentException if the pickers are already linked,
+     *         directly or through other pickers
+     */
+    public void addDuration(int first, int second, long minMillis, long maxMillis,
+                            boolean keepDuration) {
+        checkIndex(first);
+        checkIndex(second);
+        if (first == second) {
+            throw new IllegalArgumentException("Cannot link a picker to itself!");
+        }
+        if (minMillis > maxMillis) {
+            throw new IllegalArgumentException("Min duration cannot exceed max duration!");
+        }
+        final int firstRoot = rootOf(first);
+        final int secondRoot = rootOf(second);
+        if (firstRoot == secondRoot) {
+            throw new IllegalArgumentException("Pickers are already linked!");
+        }
+        mRoots[secondRoot] = firstRoot;
+
+        final int c = mFirsts.length;
+        mFirsts = Arrays.copyOf(mFirsts, c + 1);
+        mFirsts[c] = first;
+        mSeconds = Arrays.copyOf(mSeconds, c + 1);
+        mSeconds[c] = second;
+        mMins = Arrays.copyOf(mMins, c + 1);
+        mMins[c] = minMillis;
+        mMaxes = Arrays.copyOf(mMaxes, c + 1);
+        mMaxes[c] = maxMillis;
+        mKeeps = Arrays.copyOf(mKeeps, c + 1);
+        mKeeps[c] = keepDuration;
+        link(first, c);
+        link(second, c);
+    }
+
+    /**
+     * Moves the pickers linked to the given picker to satisfy their
+     * constraints, as if the user had chosen its value. Call this after
+     * setting the value of a picker in code.
+     *
+     * @param picker {@link DateTimePickerLayout} of this group
+     */
+    public void propagateFrom(@NonNull DateTimePickerLayout picker) {
+        for (int i = 0; i < mPickers.length; i++) {
+            if (mPickers[i] == picker) {
+                propagate(i);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Picker is not in this group!");
+    }
+
+    /**
+     * Checks that the chosen values of all pickers satisfy all constraints,
+     * ignoring pickers with nothing chosen.
+     *
+     * @return True if satisfied
+     */
+    public boolean isSatisfied() {
+        for (int c = 0; c < mFirsts.length; c++) {
+            final DateTimePickerLayout first = mPickers[mFirsts[c]];
+            final DateTimePickerLayout second = mPickers[mSeconds[c]];
+            if (first.getChosenFlags() == 0 || second.getChosenFlags() == 0) {
+                continue;
+            }
+            final long duration = (second.getChosenEpochMinute() - first.getChosenEpochMinute())
+                    * EpochMath.MILLIS_PER_MINUTE;
+            if (duration < mMins[c] || duration > mMaxes[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getPickerCount() {
+        return mPickers.length;
+    }
+
+    @NonNull
+    public DateTimePickerLayout getPicker(int index) {
+        checkIndex(index);
+        return mPickers[index];
+    }
+
+    /**
+     * Moves the pickers reachable from the given picker, breadth first,
+     * then binds all the moved pickers at once.
+     */
+    private void propagate(int source) {
+        if (mPickers[source].getChosenFlags() == 0) {
+            return;
+        }
+
+        final int stamp = ++mVisitStamp;
+        final long sourceMillis = currentMillis(source);
+        // A first choice has nothing to have moved from
+        mDeltas[source] = mChosen[source] ? sourceMillis - mMillis[source] : 0L;
+        mMillis[source] = sourceMillis;
+        mChosen[source] = true;
+        mVisited[source] = stamp;
+
+        // The queue holds every moved picker, so it doubles as the list to bind
+        int head = 0;
+        int tail = 0;
+        mQueue[tail++] = source;
+        while (head < tail) {
+            final int i = mQueue[head++];
+            for (int c : mLinks[i]) {
+                final boolean forward = mFirsts[c] == i;
+                final int j = forward ? mSeconds[c] : mFirsts[c];
+                if (mVisited[j] == stamp || mPickers[j].getChosenFlags() == 0) {
+                    continue;
+                }
+
+                final long current = currentMillis(j);
+                long millis = current;
+                long lo;
+                long hi;
+                if (forward) {
+                    if (mKeeps[c]) {
+                        millis += mDeltas[i];
+                    }
+                    lo = addSaturated(mMillis[i], mMins[c]);
+                    hi = addSaturated(mMillis[i], mMaxes[c]);
+                } else {
+                    lo = addSaturated(mMillis[i], negateSaturated(mMaxes[c]));
+                    hi = addSaturated(mMillis[i], negateSaturated(mMins[c]));
+                }
+                millis = Math.max(lo, Math.min(hi, millis));
+
+                mMillis[j] = millis;
+                if (millis != current) {
+                    mDeltas[j] = millis - current;
+                    mVisited[j] = stamp;
+                    mQueue[tail++] = j;
+                }
+            }
+        }
+
+        for (int k = 1; k < tail; k++) {
+            final DateTimePickerLayout picker = mPickers[mQueue[k]];
+            picker.bind(mMillis[mQueue[k]], picker.getChosenFlags());
+        }
+    }
+
+    private long currentMillis(int index) {
+        return mPickers[index].getChosenEpochMinute() * EpochMath.MILLIS_PER_MINUTE;
+    }
+
+    private int rootOf(int picker) {
+        while (mRoots[picker] != picker) {
+            mRoots[picker] = mRoots[mRoots[picker]];
+            picker = mRoots[picker];
+        }
+        return picker;
+    }
+
+    private void link(int picker, int constraint) {
+        final int[] links = mLinks[picker];
+        mLinks[picker] = Arrays.copyOf(links, links.length + 1);
+        mLinks[picker][links.length] = constraint;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mPickers.length) {
+            throw new IndexOutOfBoundsException("No picker at index: " + index);
+        }
+    }
+
+    private static long addSaturated(long a, long b) {
+        final long sum = a + b;
+        // Overflow if both have the same sign and the sum does not
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            return (a < 0) ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return sum;
+    }
+
+    private static long negateSaturated(long a) {
+        return (a == Long.MIN_VALUE) ? Long.MAX_VALUE : -a;
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link OnDateTimeChooseListener}
+     * that propagates the choices made on one picker of the group, and of
+     * {@link OnDateTimeChangeListener} that tracks its value when set in code,
+     * so that kept durations move by the amount chosen by the user only.
+     */
+    private final class Member implements OnDateTimeChooseListener, OnDateTimeChangeListener {
+        private final int mIndex;
+
+        Member(int index) {
+            mIndex = index;
+        }
+
+        @Override
+        public void onDateChosen(@NonNull DateTimeValue chosenDate) {
+            propagate(mIndex);
+        }
+
+        @Override
+        public void onTimeChosen(@NonNull DateTimeValue chosenTime) {
+            propagate(mIndex);
+        }
+
+        @Override
+        public void onDateTimeChanged(@NonNull DateTimePickerLayout picker, DateTimeValue value) {
+            // Cleared pickers start over, like pickers with nothing chosen
+            mChosen[mIndex] = value != null;
+            if (value != null) {
+                mMillis[mIndex] = currentMillis(mIndex);
+            }
+        }
+    }
+}
@@ -1,24 +1,42 @@
 package com.tylersuehr.googlishdatetimepicker;
 
 import android.app.DatePickerDialog;
+import android.app.Dialog;
 import android.app.TimePickerDialog;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.content.DialogInterface;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Color;
+import android.graphics.Paint;
 import android.graphics.PorterDuff;
+import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.Px;
-import android.support.v4.content.ContextCompat;
 import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.text.TextPaint;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
+import android.util.SparseArray;
 import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.Gravity;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.DatePicker;
@@ -27,37 +45,107 @@ import android.widget.TimePicker;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 /**
  * Copyright © 2017 Tyler Suehr
  *
  * This is a view widget, like the one in the Google Calendar app, that allows
  * the current user to choose both a date and time (datetime) and stores it as
- * a {@link Calendar} object.
+ * an immutable {@link DateTimeValue}.
  *
  * By default, this adheres to Google Material Design principles, but it can be
  * adjusted to whatever and is very customizable. It also includes cool features like
  * validation and a datetime choose listener!
  *
+ * By default, the date and time are displayed by two child {@link TextView}s. With
+ * flat rendering enabled, this view measures, draws and handles touch and
+ * accessibility for both displays itself instead, which is cheaper to inflate,
+ * measure and draw in dense forms and lists.
+ *
  * @author Tyler Suehr
  * @version 1.0
  */
 public class DateTimePickerLayout extends ViewGroup implements
         DatePickerDialog.OnDateSetListener,
         TimePickerDialog.OnTimeSetListener {
+    /** Flag of {@link #bind(long, int)} for a chosen date. */
+    public static final int CHOSEN_DATE = DateTimeSelection.CHOSEN_DATE;
+    /** Flag of {@link #bind(long, int)} for a chosen time. */
+    public static final int CHOSEN_TIME = DateTimeSelection.CHOSEN_TIME;
+    /* Flags of the saved state for shown errors, the invalid flags shifted above the chosen flags */
+    static final int SHOWN_ERROR_SHIFT = 2;
+    static final int SHOWN_DATE_ERROR = ValidationResults.INVALID_DATE << SHOWN_ERROR_SHIFT;
+    static final int SHOWN_TIME_ERROR = ValidationResults.INVALID_TIME << SHOWN_ERROR_SHIFT;
+
+    /* Sink of timings, or null to not measure them; read off the main thread too */
+    private static volatile PickerMetrics sMetrics;
+    /* Marks a display that is not showing a compiled format value */
+    private static final long NO_UNIT = Long.MIN_VALUE;
+    /* Marks a display that is showing its default text */
+    private static final long DEFAULT_UNIT = Long.MIN_VALUE + 1;
+    /* Applies text formatted in the background on the main thread */
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    /* Skeletons of the displays when no format is set */
+    private static final String DEFAULT_DATE_SKELETON = "EEEMMMddyyyy";
+    private static final String DEFAULT_TIME_SKELETON = "hmm";
+    /* Shared by all pickers without listeners */
+    private static final OnDateTimeChooseListener[] NO_CHOOSE_LISTENERS = new OnDateTimeChooseListener[0];
+    private static final OnDateTimeChangeListener[] NO_CHANGE_LISTENERS = new OnDateTimeChangeListener[0];
+
     /* Stores 16dp measurement */
     private final int mSixteenDp;
-
-    /* Stores the display format for when user chooses a date */
+    /* Stores the resolved XML attributes, shared with similar pickers */
+    private final PickerStyle mStyle;
+
+    /* Stores the compiled display format for when user chooses a date */
+    private CompiledDateFormat mCompiledDateFormat;
+    /* Stores the compiled display format for when user chooses a time */
+    private CompiledDateFormat mCompiledTimeFormat;
+    /* Reusable buffers the compiled formats write into, one per text view */
+    private char[] mDateBuffer;
+    private char[] mTimeBuffer;
+
+    /* Stores a custom display format for when user chooses a date */
     private DateFormat mDateFormat;
-    /* Stores the display format for when user chooses a time */
+    /* Stores a custom display format for when user chooses a time */
     private DateFormat mTimeFormat;
 
+    /* Skeleton or pattern each display format was set from, re-resolved
+       when the locale changes; both null if set as a DateFormat */
+    private String mDateSkeleton;
+    private String mDatePattern;
+    private String mTimeSkeleton;
+    private String mTimePattern;
+    /* Locale the display formats were resolved for */
+    private Locale mFormatLocale;
+
+    /* Displays used by default, null when using flat rendering */
     private TextView mDateView;
     private TextView mTimeView;
 
+    /* Displays used by flat rendering, null when using text views */
+    private FlatTextRegion mDateRegion;
+    private FlatTextRegion mTimeRegion;
+    private FlatTextRegion mPressedRegion;
+    private TextPaint mFlatPaint;
+    private FlatAccessibilityHelper mAccessibilityHelper;
+    private boolean mFocusableBeforeFlat;
+    private int mErrorColor;
+
+    /* Widths reserved for the widest text each display can show, in px,
+       so that choosing a new value only redraws it; 0 if unknown */
+    private int mReservedDateWidth;
+    private int mReservedTimeWidth;
+    /* Counts text changes that did not need a layout pass, and measure passes */
+    private int mAvoidedLayoutCount;
+    private int mMeasureCount;
+
     private CharSequence mDefaultDateText;
     private CharSequence mDefaultTimeText;
     private CharSequence mDefaultDateErrorText;
@@ -70,22 +158,61 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     private int mIconSize;
     private int mIconColor;
+    /* Resource of the icon drawn from IconBitmapCache, or 0 to draw mIcon */
+    private int mIconRes;
+    private Bitmap mIconBitmap;
+    /* The icon as a drawable, created when set or asked for */
     private Drawable mIcon;
     /* 1 = show icon, 2 = use icon spacing */
     private byte mIconFlags = 0;
 
-    /* Stores the date and time chosen */
-    private Calendar mChosenDate;
+    /* Stores the date and time chosen as an epoch minute in a zone,
+       with a null zone if nothing is chosen */
+    private long mChosenMinute;
+    private ZoneOffsets mChosenZone;
+    /* Created from the chosen minute and zone only when needed */
+    private DateTimeValue mChosenDate;
     private boolean mDateChosen;
     private boolean mTimeChosen;
+    /* Stores the time zone that bound and newly chosen values are shown in */
+    @NonNull
+    private ZoneOffsets mZone = ZoneOffsets.systemDefault();
+
+    /* Stores the day or minute each display shows, so unchanged values
+       are not formatted and set again */
+    private long mDisplayedDateUnit = NO_UNIT;
+    private long mDisplayedTimeUnit = NO_UNIT;
+
+    /* Stores the date or time picker dialog currently shown */
+    private Dialog mShownDialog;
+    /* True if the default strategies reuse the dialogs of the activity */
+    private boolean mCacheDialogs;
+    private boolean mDialogsPrewarmed;
+    /* Stores how long the last tap took to create and show a dialog */
+    private long mLastDialogShowNanos;
+
+    /* Formats and measures display text in the background, if not null */
+    private Executor mTextExecutor;
+    /* Display text being formatted in the background, if any */
+    private DisplayTextTask mPendingDateTask;
+    private DisplayTextTask mPendingTimeTask;
+
+    /* Stores the source of the current time */
+    @NonNull
+    private DateTimeClock mClock = DateTimeClock.SYSTEM;
 
     @NonNull
     private DateTimeValidator mValidator =
-            new DefaultDateTimeValidator();
+            new DefaultDateTimeValidator(mClock);
     private boolean mAutoValidate;
 
     /* Store a listener for datetime events */
     private OnDateTimeChooseListener mListener;
+    /* Store more listeners, copied on write so dispatching does not allocate */
+    private OnDateTimeChooseListener[] mChooseListeners = NO_CHOOSE_LISTENERS;
+    private OnDateTimeChangeListener[] mChangeListeners = NO_CHANGE_LISTENERS;
+    /* True if a change is waiting to be reported on the next frame */
+    private boolean mChangePending;
 
     /* Stores a strategy to handle invalid dates and times */
     @NonNull
@@ -97,11 +224,19 @@ public class DateTimePickerLayout extends ViewGroup implements
     private DatePickerCreateStrategy mDatePickerStrategy =
             new NowOrChosenDateCreateStrategy();
 
-    /* Stores a strategy to create the date picker */
+    /* Stores a strategy to create any date dialog, used instead of mDatePickerStrategy if set */
+    @Nullable
+    private DateDialogCreateStrategy mDateDialogStrategy;
+
+    /* Stores a strategy to create the time picker */
     @NonNull
     private TimePickerCreateStrategy mTimePickerStrategy =
             new NowOrChosenTimeCreateStrategy();
 
+    /* Stores a strategy to create any time dialog, used instead of mTimePickerStrategy if set */
+    @Nullable
+    private TimeDialogCreateStrategy mTimeDialogStrategy;
+
 
     public DateTimePickerLayout(Context context) {
         this(context, null);
@@ -113,68 +248,86 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     public DateTimePickerLayout(Context c, AttributeSet attrs, int defStyleAttr) {
         super(c, attrs, defStyleAttr);
+        final PickerMetrics metrics = sMetrics;
+        final long start = (metrics != null) ? System.nanoTime() : 0L;
         final DisplayMetrics dm = getResources().getDisplayMetrics();
         mSixteenDp = (int)(16f * dm.density);
 
-        // Set XML attributes
-        final TypedArray a = c.obtainStyledAttributes(attrs, R.styleable.DateTimePickerLayout);
-        String dateFormStr = a.getString(R.styleable.DateTimePickerLayout_dtp_dateFormat);
-        if (TextUtils.isEmpty(dateFormStr)) {
-            dateFormStr = "EEE, MMM dd, yyyy";
-        }
-        mDateFormat = new SimpleDateFormat(dateFormStr, Locale.US);
-
-        String timeFormStr = a.getString(R.styleable.DateTimePickerLayout_dtp_timeFormat);
-        if (TextUtils.isEmpty(timeFormStr)) {
-            timeFormStr = "h:mm aa";
-        }
-        mTimeFormat = new SimpleDateFormat(timeFormStr, Locale.US);
-
-        mTextPadding = a.getDimensionPixelSize(R.styleable.DateTimePickerLayout_dtp_textMargin, mSixteenDp);
-        mDefaultDateText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultDate)
-                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultDate)
-                : "Choose Date";
-        mDefaultTimeText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultTime)
-                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultTime)
-                : "Choose Time";
-        mDefaultDateErrorText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultDateError)
-                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultDateError)
-                : "Invalid Date!";
-        mDefaultTimeErrorText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultTimeError)
-                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultTimeError)
-                : "Invalid Time!";
-        mTextColor = a.getColor(R.styleable.DateTimePickerLayout_android_textColor, Color.BLACK);
-        mTextSize = a.getDimension(R.styleable.DateTimePickerLayout_android_textSize, (int)(16f * dm.scaledDensity));
-
-        mIconSize = a.getDimensionPixelSize(R.styleable.DateTimePickerLayout_dtp_iconSize, (int)(24f * dm.density));
-        mIconColor = a.getColor(R.styleable.DateTimePickerLayout_dtp_iconColor, Color.BLACK);
-        mIcon = a.getDrawable(R.styleable.DateTimePickerLayout_dtp_icon);
-        if (mIcon == null) {
-            mIcon = ContextCompat.getDrawable(c, R.drawable.ic_default_datetime_picker_24dp);
+        // Set XML attributes, resolved once per theme and style
+        mStyle = PickerStyle.obtain(c, attrs);
+        if (!TextUtils.isEmpty(mStyle.mDateFormat)) {
+            setDateFormatPattern(mStyle.mDateFormat);
+        } else {
+            setDateFormatSkeleton(TextUtils.isEmpty(mStyle.mDateSkeleton)
+                    ? DEFAULT_DATE_SKELETON : mStyle.mDateSkeleton);
+        }
+
+        if (!TextUtils.isEmpty(mStyle.mTimeFormat)) {
+            setTimeFormatPattern(mStyle.mTimeFormat);
+        } else {
+            setTimeFormatSkeleton(TextUtils.isEmpty(mStyle.mTimeSkeleton)
+                    ? DEFAULT_TIME_SKELETON : mStyle.mTimeSkeleton);
         }
-        mIcon.setBounds(0, 0, mIconSize, mIconSize);
-        mIcon.setColorFilter(mIconColor, PorterDuff.Mode.SRC_ATOP);
 
-        mAutoValidate = a.getBoolean(R.styleable.DateTimePickerLayout_dtp_enableAutoValidate, true);
-        setShowIcon(a.getBoolean(R.styleable.DateTimePickerLayout_dtp_showIcon, true));
-        setShowIconSpacing(a.getBoolean(R.styleable.DateTimePickerLayout_dtp_showIconSpacing, true));
-        a.recycle();
+        mTextPadding = mStyle.mTextPadding;
+        mDefaultDateText = mStyle.mDefaultDateText;
+        mDefaultTimeText = mStyle.mDefaultTimeText;
+        mDefaultDateErrorText = mStyle.mDefaultDateErrorText;
+        mDefaultTimeErrorText = mStyle.mDefaultTimeErrorText;
+        mTextColor = mStyle.mTextColor;
+        mTextSize = mStyle.mTextSize;
+        mErrorColor = mStyle.mErrorColor;
+
+        mIconSize = mStyle.mIconSize;
+        mIconColor = mStyle.mIconColor;
+        mIconRes = mStyle.mIconRes;
+        if (mIconRes == 0) {
+            mIcon = createStyledIcon();
+        }
 
-        // Setup the date text view
-        mDateView = createTextViewWithProperties();
-        mDateView.setText(mDefaultDateText);
-        addView(mDateView);
+        mAutoValidate = mStyle.mAutoValidate;
+        mCacheDialogs = mStyle.mCacheDialogs;
+        setShowIcon(mStyle.mShowIcon);
+        setShowIconSpacing(mStyle.mShowIconSpacing);
+        final boolean flat = mStyle.mFlatRendering;
 
-        // Setup the time text view
-        mTimeView = createTextViewWithProperties();
-        mTimeView.setText(mDefaultTimeText);
-        addView(mTimeView);
+        // Setup the date and time displays
+        if (flat) {
+            createFlatRegions();
+        } else {
+            createTextViews();
+        }
+        updateReservedWidths();
+        refreshDisplays();
+        if (metrics != null) {
+            metrics.onEvent(PickerMetrics.EVENT_INFLATE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sets the sink of the timings of all pickers, i.e. a
+     * {@link HistogramPickerMetrics}. Meant to be set once, at startup.
+     *
+     * @param metrics {@link PickerMetrics}, or null to stop measuring
+     */
+    public static void setMetrics(@Nullable PickerMetrics metrics) {
+        sMetrics = metrics;
+    }
+
+    @Nullable
+    public static PickerMetrics getMetrics() {
+        return sMetrics;
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        mMeasureCount++;
+        final PickerMetrics metrics = sMetrics;
+        final long start = (metrics != null) ? System.nanoTime() : 0L;
+
         // Measure children first... allow text views to do their
-        // measurements as needed
+        // measurements as needed. Since their widths are reserved,
+        // they reuse their previous measurements unless the specs change
         measureChildren(widthMeasureSpec, heightMeasureSpec);
 
         // Account for the needed height only
@@ -193,68 +346,250 @@ public class DateTimePickerLayout extends ViewGroup implements
                 break;
         }
         setMeasuredDimension(widthSize, heightSize);
+        if (metrics != null) {
+            metrics.onEvent(PickerMetrics.EVENT_MEASURE, System.nanoTime() - start);
+        }
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        final PickerMetrics metrics = sMetrics;
+        final long start = (metrics != null) ? System.nanoTime() : 0L;
+
+        // Create the cached dialogs once the screen is idle after first layout
+        if (mCacheDialogs && !mDialogsPrewarmed) {
+            mDialogsPrewarmed = true;
+            Looper.myQueue().addIdleHandler(mPrewarmHandler);
+        }
+
         // We want to specifically layout the date view to
         // the right of the drawn icon
         int left = ViewCompat.getPaddingStart(this);
         if (adjustForIcon()) {
             left += mIconSize + (mSixteenDp << 1);
         }
-        int top = getPaddingTop();
-        int right = left + mDateView.getMeasuredWidth();
-        int bottom = top + mDateView.getMeasuredHeight();
-        mDateView.layout(left, top, right, bottom);
+        final int top = getPaddingTop();
+        if (mDateView != null) {
+            mDateView.layout(left, top, left + mDateView.getMeasuredWidth(),
+                    top + mDateView.getMeasuredHeight());
+        } else {
+            mDateRegion.layout(left, top);
+        }
 
         // We want to specifically layout the time view to
         // the far right of the parent
-        left = getMeasuredWidth() - mTimeView.getMeasuredWidth() -
+        left = getMeasuredWidth() - getTimeDisplayWidth() -
                 ViewCompat.getPaddingEnd(this);
-        right = left + mTimeView.getMeasuredWidth();
-        bottom = top + mTimeView.getMeasuredHeight();
-        mTimeView.layout(left, top, right, bottom);
+        if (mTimeView != null) {
+            mTimeView.layout(left, top, left + mTimeView.getMeasuredWidth(),
+                    top + mTimeView.getMeasuredHeight());
+        } else {
+            mTimeRegion.layout(left, top);
+        }
+        if (metrics != null) {
+            metrics.onEvent(PickerMetrics.EVENT_LAYOUT, System.nanoTime() - start);
+        }
     }
 
     @Override
     protected void dispatchDraw(Canvas canvas) {
         super.dispatchDraw(canvas);
+        if (mDateRegion != null) {
+            mDateRegion.draw(canvas, mTextColor, mErrorColor);
+            mTimeRegion.draw(canvas, mTextColor, mErrorColor);
+        }
         if ((mIconFlags&1)==1) {
             drawIcon(canvas);
         }
     }
 
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mDateRegion == null || !isEnabled()) {
+            return super.onTouchEvent(event);
+        }
+
+        // Hit-test the flat displays as if they were child views
+        final int x = (int)event.getX();
+        final int y = (int)event.getY();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mPressedRegion = mDateRegion.contains(x, y) ? mDateRegion
+                        : mTimeRegion.contains(x, y) ? mTimeRegion : null;
+                if (mPressedRegion == null) {
+                    return false;
+                }
+                mPressedRegion.setPressed(true, event.getX(), event.getY());
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (mPressedRegion != null && !mPressedRegion.contains(x, y)) {
+                    releasePressedRegion();
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (mPressedRegion != null) {
+                    final boolean date = (mPressedRegion == mDateRegion);
+                    releasePressedRegion();
+                    // A click listener on the picker already plays the sound
+                    if (!performClick()) {
+                        playSoundEffect(SoundEffectConstants.CLICK);
+                    }
+                    onDisplayClicked(date);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                releasePressedRegion();
+                return true;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return (mAccessibilityHelper != null && mAccessibilityHelper.dispatchHoverEvent(event))
+                || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return (mAccessibilityHelper != null && mAccessibilityHelper.dispatchKeyEvent(event))
+                || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        if (mAccessibilityHelper != null) {
+            mAccessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return super.verifyDrawable(who) || (mDateRegion != null
+                && (who == mDateRegion.getBackground() || who == mTimeRegion.getBackground()));
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // Report a change made while detached
+        if (mChangePending) {
+            Choreographer.getInstance().postFrameCallback(mChangeDispatcher);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        // Keep the change pending, but do not hold on to this picker
+        if (mChangePending) {
+            Choreographer.getInstance().removeFrameCallback(mChangeDispatcher);
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // Only called if the activity handles the change instead of restarting
+        if (LocalizedFormatCache.getLocale(getContext()).equals(mFormatLocale)) {
+            return;
+        }
+        if (mDateSkeleton != null) {
+            setDateFormatSkeleton(mDateSkeleton);
+        } else if (mDatePattern != null) {
+            setDateFormatPattern(mDatePattern);
+        }
+        if (mTimeSkeleton != null) {
+            setTimeFormatSkeleton(mTimeSkeleton);
+        } else if (mTimePattern != null) {
+            setTimeFormatPattern(mTimePattern);
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        final Parcelable superState = super.onSaveInstanceState();
+        final int flags = getStateFlags();
+        if (flags == 0) {
+            // Nothing to restore that a new picker would not show anyways
+            return superState;
+        }
+        final SavedState ss = new SavedState(superState);
+        ss.mEpochMinute = mChosenMinute;
+        ss.mFlags = flags;
+        return ss;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        final SavedState ss = (SavedState)state;
+        super.onRestoreInstanceState(ss.getSuperState());
+        restoreState(ss.mEpochMinute, ss.mFlags);
+    }
+
+    @Override
+    protected void dispatchSaveInstanceState(SparseArray<Parcelable> container) {
+        // The displays are derived from the state of this picker
+        dispatchFreezeSelfOnly(container);
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        dispatchThawSelfOnly(container);
+    }
+
+    @Override
+    public void jumpDrawablesToCurrentState() {
+        super.jumpDrawablesToCurrentState();
+        if (mDateRegion != null) {
+            if (mDateRegion.getBackground() != null) {
+                mDateRegion.getBackground().jumpToCurrentState();
+            }
+            if (mTimeRegion.getBackground() != null) {
+                mTimeRegion.getBackground().jumpToCurrentState();
+            }
+        }
+    }
+
     /**
      * Called when the user chooses a date using the date picker dialog.
      */
     @Override
     public void onDateSet(DatePicker view, int year, int month, int dayOfMonth) {
-        // Store the chosen date in the calendar
-        mChosenDate = Calendar.getInstance();
-        mChosenDate.set(Calendar.YEAR, year);
-        mChosenDate.set(Calendar.MONTH, month);
-        mChosenDate.set(Calendar.DAY_OF_MONTH, dayOfMonth);
+        // Store the chosen date, keeping any previously chosen time
+        mShownDialog = null;
+        final DateTimeSelection selection = getSelection()
+                .withDate(year, month, dayOfMonth, mClock, mZone.getId());
+        setChosenValue(selection.getValue());
         mDateChosen = true;
 
         // Validate chosen date, if possible
         if (mAutoValidate) {
-            if (!mValidator.validateDate(mChosenDate)) {
+            if ((checkSelection(selection) & ValidationResults.INVALID_DATE) != 0) {
                 mDateChosen = false;
-                mInvalidStrategy.onInvalidDate(this, mDateView);
+                onInvalidDate();
                 return;
             }
         }
 
-        mDateView.setError(null);
+        setDateError(null);
 
         // Display the formatted chosen date
-        mDateView.setText(mDateFormat.format(mChosenDate.getTime()));
+        displayChosenDate();
 
-        // Invoke listener, if possible
+        // Invoke listeners, if possible
         if (mListener != null) {
             mListener.onDateChosen(mChosenDate);
         }
+        for (OnDateTimeChooseListener listener : mChooseListeners) {
+            listener.onDateChosen(mChosenDate);
+        }
+        onDateTimeChanged();
     }
 
     /**
@@ -262,29 +597,35 @@ public class DateTimePickerLayout extends ViewGroup implements
      */
     @Override
     public void onTimeSet(TimePicker view, int hourOfDay, int minute) {
-        // Store the chosen time in the calendar
-        mChosenDate.set(Calendar.HOUR_OF_DAY, hourOfDay);
-        mChosenDate.set(Calendar.MINUTE, minute);
+        // Store the chosen time, keeping any previously chosen date
+        mShownDialog = null;
+        final DateTimeSelection selection = getSelection()
+                .withTime(hourOfDay, minute, mClock, mZone.getId());
+        setChosenValue(selection.getValue());
         mTimeChosen = true;
 
         // Validate chosen time, if possible
         if (mAutoValidate) {
-            if (!mValidator.validateTime(mChosenDate)) {
+            if ((checkSelection(selection) & ValidationResults.INVALID_TIME) != 0) {
                 mTimeChosen = false;
-                mInvalidStrategy.onInvalidTime(this, mTimeView);
+                onInvalidTime();
                 return;
             }
         }
 
-        mTimeView.setError(null);
+        setTimeError(null);
 
         // Display the formatted chosen time
-        mTimeView.setText(mTimeFormat.format(mChosenDate.getTime()));
+        displayChosenTime();
 
-        // Invoke listener, if possible
+        // Invoke listeners, if possible
         if (mListener != null) {
             mListener.onTimeChosen(mChosenDate);
         }
+        for (OnDateTimeChooseListener listener : mChooseListeners) {
+            listener.onTimeChosen(mChosenDate);
+        }
+        onDateTimeChanged();
     }
 
     /**
@@ -295,38 +636,96 @@ public class DateTimePickerLayout extends ViewGroup implements
      */
     public boolean isValidDateTime() {
         // Use the validator to validate date and time
-        if (!mValidator.validateDate(mChosenDate)) {
-            mInvalidStrategy.onInvalidDate(this, mDateView);
+        final int invalid = checkDateTime();
+        if ((invalid & ValidationResults.INVALID_DATE) != 0) {
+            onInvalidDate();
             return false;
-        } else if (!mValidator.validateTime(mChosenDate)) {
-            mInvalidStrategy.onInvalidTime(this, mTimeView);
+        } else if ((invalid & ValidationResults.INVALID_TIME) != 0) {
+            onInvalidTime();
             return false;
         }
         return true;
     }
 
+    /**
+     * Checks the chosen datetime using the validator {@link #mValidator},
+     * without showing any errors. Parts that are not chosen are invalid.
+     *
+     * @return {@link ValidationResults#INVALID_DATE} and/or
+     *         {@link ValidationResults#INVALID_TIME}, or 0 if valid
+     */
+    public int checkDateTime() {
+        // Parts that are not chosen are invalid, like on a server
+        return checkChosen(getChosenValue(), getChosenFlags());
+    }
+
+    /**
+     * Shows the errors of a validation done apart from this picker, i.e.
+     * by {@link ValidationResults}, using the {@link InvalidDateTimeStrategy}.
+     *
+     * @param invalidFlags {@link ValidationResults#INVALID_DATE} and/or
+     *                     {@link ValidationResults#INVALID_TIME}
+     */
+    public void showValidationErrors(int invalidFlags) {
+        if ((invalidFlags & ValidationResults.INVALID_DATE) != 0) {
+            onInvalidDate();
+        }
+        if ((invalidFlags & ValidationResults.INVALID_TIME) != 0) {
+            onInvalidTime();
+        }
+    }
+
     /**
      * Gets the chosen datetime.
-     * @return {@link Calendar}
+     * @return {@link DateTimeValue}, or null if nothing is chosen
      */
-    public Calendar getChosenDateTime() {
+    @Nullable
+    public DateTimeValue getChosenValue() {
+        if (mChosenDate == null && mChosenZone != null) {
+            mChosenDate = DateTimeValue.ofEpochMinute(mChosenMinute, mChosenZone.getId());
+        }
         return mChosenDate;
     }
 
+    /**
+     * Gets the chosen datetime along with which of its parts are chosen,
+     * i.e. to submit to a server that checks it with the same rules.
+     *
+     * @return {@link DateTimeSelection}
+     */
+    @NonNull
+    public DateTimeSelection getSelection() {
+        return DateTimeSelection.of(getChosenValue(), getChosenFlags());
+    }
+
+    /**
+     * Gets a copy of the chosen datetime as a calendar. Prefer
+     * {@link #getChosenValue()}, which does not allocate.
+     *
+     * @return {@link Calendar}, or null if nothing is chosen
+     */
+    @Nullable
+    public Calendar getChosenDateTime() {
+        final DateTimeValue chosen = getChosenValue();
+        return (chosen != null) ? chosen.toCalendar() : null;
+    }
+
     /**
      * Clears both the chosen date and time and resets
      * all the values set by them.
      */
     public void clearChosenDateTime() {
+        mChosenZone = null;
         mChosenDate = null;
         mDateChosen = false;
         mTimeChosen = false;
 
-        mDateView.setText(mDefaultDateText);
-        mTimeView.setText(mDefaultTimeText);
+        displayDefaultDate();
+        displayDefaultTime();
 
-        mDateView.setError(null);
-        mTimeView.setError(null);
+        setDateError(null);
+        setTimeError(null);
+        onDateTimeChanged();
     }
 
     /**
@@ -335,13 +734,265 @@ public class DateTimePickerLayout extends ViewGroup implements
      */
     public void setDefaultDateTime(Calendar defaultDateTime) {
         if (defaultDateTime == null) { return; }
-        mChosenDate = defaultDateTime;
+        setDefaultDateTime(DateTimeValue.fromCalendar(defaultDateTime));
+    }
+
+    /**
+     * Sets a pre-selected default datetime on this widget.
+     * @param defaultDateTime {@link DateTimeValue}
+     */
+    public void setDefaultDateTime(DateTimeValue defaultDateTime) {
+        if (defaultDateTime == null) { return; }
+        setChosenValue(defaultDateTime);
 
-        mDateView.setText(mDateFormat.format(mChosenDate.getTime()));
-        mTimeView.setText(mTimeFormat.format(mChosenDate.getTime()));
+        displayChosenDate();
+        displayChosenTime();
 
         mDateChosen = true;
         mTimeChosen = true;
+        onDateTimeChanged();
+    }
+
+    /**
+     * Binds this picker to a model, i.e. when it is recycled as a row of a
+     * list. Only the parts of the state that differ from the current state
+     * are updated: a display is only formatted and set again if its chosen
+     * flag changed or it would show a different day or minute. Any shown
+     * errors are cleared.
+     *
+     * Once the formatted text of the values is cached, binding does not
+     * allocate, unlike {@link #setDefaultDateTime(Calendar)}.
+     *
+     * @param epochMillis Chosen instant, shown in the time zone of this
+     *                    picker (see {@link #getTimeZoneId()})
+     * @param chosenFlags {@link #CHOSEN_DATE} and/or {@link #CHOSEN_TIME},
+     *                    or 0 if nothing is chosen
+     */
+    public void bind(long epochMillis, int chosenFlags) {
+        final boolean dateChosen = (chosenFlags & CHOSEN_DATE) != 0;
+        final boolean timeChosen = (chosenFlags & CHOSEN_TIME) != 0;
+        boolean changed = false;
+        if (dateChosen || timeChosen) {
+            final long minute = EpochMath.floorDiv(epochMillis, EpochMath.MILLIS_PER_MINUTE);
+            if (mChosenZone != mZone || mChosenMinute != minute) {
+                mChosenMinute = minute;
+                mChosenZone = mZone;
+                mChosenDate = null;
+                changed = true;
+            }
+        } else if (mChosenZone != null) {
+            mChosenZone = null;
+            mChosenDate = null;
+            changed = true;
+        }
+
+        if (dateChosen != mDateChosen) {
+            mDateChosen = dateChosen;
+            mDisplayedDateUnit = NO_UNIT;
+            changed = true;
+        }
+        if (mDateChosen) {
+            displayChosenDate();
+        } else {
+            displayDefaultDate();
+        }
+
+        if (timeChosen != mTimeChosen) {
+            mTimeChosen = timeChosen;
+            mDisplayedTimeUnit = NO_UNIT;
+            changed = true;
+        }
+        if (mTimeChosen) {
+            displayChosenTime();
+        } else {
+            displayDefaultTime();
+        }
+
+        if (getDateError() != null) {
+            setDateError(null);
+        }
+        if (getTimeError() != null) {
+            setTimeError(null);
+        }
+        if (changed) {
+            onDateTimeChanged();
+        }
+    }
+
+    /**
+     * Unbinds this picker from its model: detaches all listeners and drops
+     * any change not reported yet, cancels any text still being formatted
+     * in the background, and dismisses and releases any shown picker dialog,
+     * so that a recycled picker never reports a choice made for its previous
+     * model. This does not allocate.
+     */
+    public void unbind() {
+        mListener = null;
+        mChooseListeners = NO_CHOOSE_LISTENERS;
+        mChangeListeners = NO_CHANGE_LISTENERS;
+        if (mChangePending) {
+            mChangePending = false;
+            Choreographer.getInstance().removeFrameCallback(mChangeDispatcher);
+        }
+        cancelPendingDateText();
+        cancelPendingTimeText();
+        if (mShownDialog != null) {
+            // A shared dialog may be showing for another picker by now
+            if (PickerDialogCache.isShownFor(getContext(), mShownDialog, this)) {
+                mShownDialog.dismiss();
+            }
+            mShownDialog = null;
+        }
+    }
+
+    /**
+     * Called when a dialog this picker showed is dismissed, chosen or not,
+     * so that the picker does not hold on to it.
+     */
+    void onDialogDismissed(Dialog dialog) {
+        if (mShownDialog == dialog) {
+            mShownDialog = null;
+        }
+    }
+
+    /**
+     * Gets the parts of the datetime that are chosen, as passed to
+     * {@link #bind(long, int)}.
+     *
+     * @return {@link #CHOSEN_DATE} and/or {@link #CHOSEN_TIME}, or 0
+     */
+    public int getChosenFlags() {
+        return (mDateChosen ? CHOSEN_DATE : 0) | (mTimeChosen ? CHOSEN_TIME : 0);
+    }
+
+    /**
+     * Gets the chosen flags along with {@link #SHOWN_DATE_ERROR} and/or
+     * {@link #SHOWN_TIME_ERROR}, which is all the state worth saving
+     * besides the chosen epoch minute.
+     */
+    int getStateFlags() {
+        return getChosenFlags()
+                | ((getDateError() != null) ? SHOWN_DATE_ERROR : 0)
+                | ((getTimeError() != null) ? SHOWN_TIME_ERROR : 0);
+    }
+
+    long getChosenEpochMinute() {
+        return mChosenMinute;
+    }
+
+    /**
+     * Restores saved state like {@link #bind(long, int)}, then shows the
+     * errors that were shown through the {@link InvalidDateTimeStrategy},
+     * so that it recreates the same error UI. The error texts themselves
+     * are not saved.
+     */
+    void restoreState(long epochMinute, int stateFlags) {
+        bind(epochMinute * EpochMath.MILLIS_PER_MINUTE, stateFlags & (CHOSEN_DATE | CHOSEN_TIME));
+        showValidationErrors(stateFlags >> SHOWN_ERROR_SHIFT);
+    }
+
+    /**
+     * Shows an error on the date display, or clears it if null. With
+     * flat rendering, the date is drawn in the error color instead.
+     *
+     * @param error Error message
+     */
+    public void setDateError(@Nullable CharSequence error) {
+        if (mDateView != null) {
+            mDateView.setError(error);
+            applyReservedWidth(mDateView, (error == null) ? mReservedDateWidth : 0);
+        } else {
+            mDateRegion.setError(error);
+            onRegionChanged(mDateRegion, false);
+        }
+    }
+
+    /**
+     * Shows an error on the time display, or clears it if null. With
+     * flat rendering, the time is drawn in the error color instead.
+     *
+     * @param error Error message
+     */
+    public void setTimeError(@Nullable CharSequence error) {
+        if (mTimeView != null) {
+            mTimeView.setError(error);
+            applyReservedWidth(mTimeView, (error == null) ? mReservedTimeWidth : 0);
+        } else {
+            mTimeRegion.setError(error);
+            onRegionChanged(mTimeRegion, false);
+        }
+    }
+
+    @Nullable
+    public CharSequence getDateError() {
+        return (mDateView != null) ? mDateView.getError() : mDateRegion.getError();
+    }
+
+    @Nullable
+    public CharSequence getTimeError() {
+        return (mTimeView != null) ? mTimeView.getError() : mTimeRegion.getError();
+    }
+
+    /**
+     * Switches between drawing the date and time displays directly and
+     * using two child text views. Any shown errors are cleared.
+     *
+     * @param flat True if should use flat rendering
+     */
+    public void setFlatRendering(boolean flat) {
+        if (flat == isFlatRendering()) { return; }
+        if (flat) {
+            removeAllViews();
+            mDateView = null;
+            mTimeView = null;
+            createFlatRegions();
+        } else {
+            releasePressedRegion();
+            mDateRegion.setBackground(null);
+            mTimeRegion.setBackground(null);
+            mDateRegion = null;
+            mTimeRegion = null;
+            mFlatPaint = null;
+            mAccessibilityHelper = null;
+            ViewCompat.setAccessibilityDelegate(this, null);
+            setFocusable(mFocusableBeforeFlat);
+            createTextViews();
+        }
+        updateReservedWidths();
+        refreshDisplays();
+        requestLayout();
+        invalidate();
+    }
+
+    public boolean isFlatRendering() {
+        return mDateRegion != null;
+    }
+
+    /**
+     * Gets the number of times a display's text changed without needing
+     * a layout pass, because the new text fit in the width reserved for
+     * the widest text of the display format.
+     *
+     * @return Number of avoided layout passes
+     */
+    public int getAvoidedLayoutCount() {
+        return mAvoidedLayoutCount;
+    }
+
+    /**
+     * Gets the number of times this view has been measured.
+     * @return Number of measure passes
+     */
+    public int getMeasureCount() {
+        return mMeasureCount;
+    }
+
+    /**
+     * Resets both the avoided layout and measure counters.
+     */
+    public void resetLayoutCounters() {
+        mAvoidedLayoutCount = 0;
+        mMeasureCount = 0;
     }
 
     /**
@@ -394,42 +1045,245 @@ public class DateTimePickerLayout extends ViewGroup implements
         return mAutoValidate;
     }
 
-    public DateFormat getDateFormat() {
-        return mDateFormat;
+    /**
+     * Makes the default strategies reuse a date and time picker dialog
+     * shared by every picker in the activity, which are created while the
+     * screen is idle after the first layout, instead of creating new
+     * dialogs on every tap.
+     *
+     * @param cacheDialogs True if should reuse dialogs
+     */
+    public void setCacheDialogs(boolean cacheDialogs) {
+        mCacheDialogs = cacheDialogs;
+        if (mCacheDialogs && !mDialogsPrewarmed && !isLayoutRequested()) {
+            mDialogsPrewarmed = true;
+            Looper.myQueue().addIdleHandler(mPrewarmHandler);
+        }
     }
 
-    public void setDateFormat(DateFormat format) {
-        mDateFormat = format;
+    public boolean isCacheDialogs() {
+        return mCacheDialogs;
     }
 
-    public DateFormat getTimeFormat() {
-        return mTimeFormat;
+    /**
+     * Sets an executor to format and measure the text of chosen values in
+     * the background, i.e. when binding many pickers at once. The text is
+     * then set on the main thread, unless the picker shows a different
+     * value by then. By default, text is formatted synchronously.
+     *
+     * @param executor {@link Executor}, or null to format synchronously
+     */
+    public void setTextExecutor(@Nullable Executor executor) {
+        mTextExecutor = executor;
     }
 
-    public void setTimeFormat(DateFormat format) {
-        mTimeFormat = format;
+    @Nullable
+    public Executor getTextExecutor() {
+        return mTextExecutor;
     }
 
-    public void setDefaultDateText(String text) {
-        mDefaultDateText = text;
-        if (!mDateChosen) {
-            mDateView.setText(mDefaultDateText);
-        }
+    /**
+     * Gets how long the last tap on a display took to create and show its
+     * date or time picker dialog, on the UI thread.
+     *
+     * @return Duration in nanoseconds, or 0 if no dialog was shown yet
+     */
+    public long getLastDialogShowNanos() {
+        return mLastDialogShowNanos;
     }
 
-    public void setDefaultTimeText(String text) {
-        mDefaultTimeText = text;
-        if (!mTimeChosen) {
-            mTimeView.setText(mDefaultTimeText);
+    /**
+     * Gets the format used by the date display. If the display is using a
+     * compiled pattern, this returns an equivalent {@link SimpleDateFormat}
+     * that is not used for display.
+     *
+     * @return {@link DateFormat}
+     */
+    public DateFormat getDateFormat() {
+        if (mDateFormat == null) {
+            mDateFormat = mCompiledDateFormat.toSimpleDateFormat();
+            mDateFormat.setTimeZone(mZone.toTimeZone());
         }
+        return mDateFormat;
     }
 
-    public void setDefaultDateErrorText(String text) {
-        mDefaultDateErrorText = text;
+    /**
+     * Sets a custom format used by the date display. This disables the
+     * allocation-free compiled format, so prefer {@link #setDateFormatPattern(String)}
+     * when a pattern is all that is needed. The format is switched to the
+     * time zone of the picker.
+     *
+     * @param format {@link DateFormat}
+     */
+    public void setDateFormat(@NonNull DateFormat format) {
+        format.setTimeZone(mZone.toTimeZone());
+        mDateFormat = format;
+        mDateSkeleton = null;
+        mDatePattern = null;
+        mCompiledDateFormat = null;
+        mDateBuffer = null;
+        mDisplayedDateUnit = NO_UNIT;
+        updateReservedWidths();
+        if (mDateChosen) {
+            displayChosenDate();
+        }
     }
 
-    public void setDefaultTimeErrorText(String text) {
-        mDefaultTimeErrorText = text;
+    /**
+     * Sets the pattern used by the date display, with the names of the
+     * picker's locale. Patterns the compiler does not support fall back to
+     * a {@link SimpleDateFormat}.
+     *
+     * @param pattern {@link SimpleDateFormat} pattern
+     */
+    public void setDateFormatPattern(@NonNull String pattern) {
+        mDateSkeleton = null;
+        mDatePattern = pattern;
+        applyDateFormatPattern(pattern);
+    }
+
+    /**
+     * Sets the skeleton used by the date display, like "EEEMMMdyyyy". The
+     * display uses the best pattern of the picker's locale for the fields
+     * of the skeleton, which orders and punctuates them for that locale.
+     *
+     * @param skeleton Skeleton of the fields to show
+     */
+    public void setDateFormatSkeleton(@NonNull String skeleton) {
+        mDateSkeleton = skeleton;
+        mDatePattern = null;
+        applyDateFormatPattern(LocalizedFormatCache.getInstance(getContext())
+                .getBestPattern(getContext(), skeleton));
+    }
+
+    private void applyDateFormatPattern(String pattern) {
+        mFormatLocale = LocalizedFormatCache.getLocale(getContext());
+        mCompiledDateFormat = LocalizedFormatCache.getInstance(getContext())
+                .getCompiled(pattern, mFormatLocale);
+        if (mCompiledDateFormat != null) {
+            mDateBuffer = mCompiledDateFormat.newBuffer();
+            mDateFormat = null;
+        } else {
+            mDateBuffer = null;
+            mDateFormat = new SimpleDateFormat(pattern, mFormatLocale);
+            mDateFormat.setTimeZone(mZone.toTimeZone());
+        }
+        mDisplayedDateUnit = NO_UNIT;
+        updateReservedWidths();
+        if (mDateChosen) {
+            displayChosenDate();
+        }
+    }
+
+    /**
+     * Gets the format used by the time display. If the display is using a
+     * compiled pattern, this returns an equivalent {@link SimpleDateFormat}
+     * that is not used for display.
+     *
+     * @return {@link DateFormat}
+     */
+    public DateFormat getTimeFormat() {
+        if (mTimeFormat == null) {
+            mTimeFormat = mCompiledTimeFormat.toSimpleDateFormat();
+            mTimeFormat.setTimeZone(mZone.toTimeZone());
+        }
+        return mTimeFormat;
+    }
+
+    /**
+     * Sets a custom format used by the time display. This disables the
+     * allocation-free compiled format, so prefer {@link #setTimeFormatPattern(String)}
+     * when a pattern is all that is needed. The format is switched to the
+     * time zone of the picker.
+     *
+     * @param format {@link DateFormat}
+     */
+    public void setTimeFormat(@NonNull DateFormat format) {
+        format.setTimeZone(mZone.toTimeZone());
+        mTimeFormat = format;
+        mTimeSkeleton = null;
+        mTimePattern = null;
+        mCompiledTimeFormat = null;
+        mTimeBuffer = null;
+        mDisplayedTimeUnit = NO_UNIT;
+        updateReservedWidths();
+        if (mTimeChosen) {
+            displayChosenTime();
+        }
+    }
+
+    /**
+     * Sets the pattern used by the time display, with the names of the
+     * picker's locale. Patterns the compiler does not support fall back to
+     * a {@link SimpleDateFormat}.
+     *
+     * @param pattern {@link SimpleDateFormat} pattern
+     */
+    public void setTimeFormatPattern(@NonNull String pattern) {
+        mTimeSkeleton = null;
+        mTimePattern = pattern;
+        applyTimeFormatPattern(pattern);
+    }
+
+    /**
+     * Sets the skeleton used by the time display, like "hmm". The display
+     * uses the best pattern of the picker's locale for the fields of the
+     * skeleton, with the hours of the system's 12/24-hour setting.
+     *
+     * @param skeleton Skeleton of the fields to show
+     */
+    public void setTimeFormatSkeleton(@NonNull String skeleton) {
+        mTimeSkeleton = skeleton;
+        mTimePattern = null;
+        applyTimeFormatPattern(LocalizedFormatCache.getInstance(getContext())
+                .getBestPattern(getContext(), skeleton));
+    }
+
+    private void applyTimeFormatPattern(String pattern) {
+        mFormatLocale = LocalizedFormatCache.getLocale(getContext());
+        mCompiledTimeFormat = LocalizedFormatCache.getInstance(getContext())
+                .getCompiled(pattern, mFormatLocale);
+        if (mCompiledTimeFormat != null) {
+            mTimeBuffer = mCompiledTimeFormat.newBuffer();
+            mTimeFormat = null;
+        } else {
+            mTimeBuffer = null;
+            mTimeFormat = new SimpleDateFormat(pattern, mFormatLocale);
+            mTimeFormat.setTimeZone(mZone.toTimeZone());
+        }
+        mDisplayedTimeUnit = NO_UNIT;
+        updateReservedWidths();
+        if (mTimeChosen) {
+            displayChosenTime();
+        }
+    }
+
+    public void setDefaultDateText(String text) {
+        mDefaultDateText = text;
+        updateReservedWidths();
+        if (!mDateChosen) {
+            setDateText(mDefaultDateText);
+            mDisplayedDateUnit = DEFAULT_UNIT;
+        }
+    }
+
+    public void setDefaultTimeText(String text) {
+        mDefaultTimeText = text;
+        updateReservedWidths();
+        if (!mTimeChosen) {
+            setTimeText(mDefaultTimeText);
+            mDisplayedTimeUnit = DEFAULT_UNIT;
+        }
+    }
+
+    public void setDefaultDateErrorText(String text) {
+        mDefaultDateErrorText = text;
+        updateReservedWidths();
+    }
+
+    public void setDefaultTimeErrorText(String text) {
+        mDefaultTimeErrorText = text;
+        updateReservedWidths();
     }
 
     public Typeface getTypeface() {
@@ -438,8 +1292,14 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     public void setTypeface(Typeface typeface) {
         mTypeface = typeface;
-        mDateView.setTypeface(mTypeface);
-        mTimeView.setTypeface(mTypeface);
+        if (mDateView != null) {
+            mDateView.setTypeface(mTypeface);
+            mTimeView.setTypeface(mTypeface);
+            updateReservedWidths();
+        } else {
+            mFlatPaint.setTypeface(mTypeface);
+            onFlatPaintChanged();
+        }
     }
 
     public int getTextPadding() {
@@ -448,10 +1308,17 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     public void setTextPadding(int textPadding) {
         mTextPadding = textPadding;
-        mDateView.setPadding(mTextPadding, mTextPadding,
-                mTextPadding, mTextPadding);
-        mTimeView.setPadding(mTextPadding, mTextPadding,
-                mTextPadding, mTextPadding);
+        if (mDateView != null) {
+            mDateView.setPadding(mTextPadding, mTextPadding,
+                    mTextPadding, mTextPadding);
+            mTimeView.setPadding(mTextPadding, mTextPadding,
+                    mTextPadding, mTextPadding);
+            updateReservedWidths();
+        } else {
+            mDateRegion.setPadding(mTextPadding);
+            mTimeRegion.setPadding(mTextPadding);
+            onFlatPaintChanged();
+        }
     }
 
     public int getTextColor() {
@@ -460,8 +1327,12 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     public void setTextColor(@ColorInt int color) {
         mTextColor = color;
-        mDateView.setTextColor(color);
-        mTimeView.setTextColor(color);
+        if (mDateView != null) {
+            mDateView.setTextColor(color);
+            mTimeView.setTextColor(color);
+        } else {
+            invalidate();
+        }
     }
 
     public float getTextSize() {
@@ -470,8 +1341,27 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     public void setTextSize(float size) {
         mTextSize = size;
-        mDateView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
-        mTimeView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+        if (mDateView != null) {
+            mDateView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+            mTimeView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+            updateReservedWidths();
+        } else {
+            mFlatPaint.setTextSize(mTextSize);
+            onFlatPaintChanged();
+        }
+    }
+
+    public int getErrorColor() {
+        return mErrorColor;
+    }
+
+    /**
+     * Sets the color of displays with an error, used by flat rendering.
+     * @param color Error color
+     */
+    public void setErrorColor(@ColorInt int color) {
+        mErrorColor = color;
+        invalidate();
     }
 
     public int getIconSize() {
@@ -480,15 +1370,34 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     public void setIconSize(int iconSize) {
         mIconSize = iconSize;
-        mIcon.setBounds(0, 0, mIconSize, mIconSize);
+        mIconBitmap = null;
+        if (mIcon != null) {
+            mIcon.setBounds(0, 0, mIconSize, mIconSize);
+        }
         invalidate();
     }
 
+    /**
+     * Gets the icon drawable. The caller may change it, so from then on the
+     * icon is drawn from this drawable instead of the shared bitmap.
+     *
+     * @return {@link Drawable}
+     */
     public Drawable getIcon() {
+        if (mIcon == null) {
+            mIcon = createStyledIcon();
+        }
+        if (mIconRes != 0) {
+            mIconRes = 0;
+            mIconBitmap = null;
+            invalidate();
+        }
         return mIcon;
     }
 
     public void setIcon(Drawable icon) {
+        mIconRes = 0;
+        mIconBitmap = null;
         mIcon = icon;
         mIcon.setBounds(0, 0, mIconSize, mIconSize);
         mIcon.setColorFilter(mIconColor, PorterDuff.Mode.SRC_ATOP);
@@ -503,6 +1412,51 @@ public class DateTimePickerLayout extends ViewGroup implements
         return mValidator;
     }
 
+    /**
+     * Sets the time zone that bound and newly chosen values are shown in.
+     * A chosen value keeps its instant and is shown in the new zone.
+     *
+     * @param zoneId Time zone id
+     */
+    public void setTimeZone(@NonNull String zoneId) {
+        final ZoneOffsets zone = ZoneOffsets.forId(zoneId);
+        if (zone == mZone) { return; }
+        mZone = zone;
+        if (mDateFormat != null) {
+            mDateFormat.setTimeZone(zone.toTimeZone());
+        }
+        if (mTimeFormat != null) {
+            mTimeFormat.setTimeZone(zone.toTimeZone());
+        }
+        if (mChosenZone != null) {
+            mChosenZone = zone;
+            mChosenDate = null;
+            refreshDisplays();
+            onDateTimeChanged();
+        }
+    }
+
+    @NonNull
+    public String getTimeZoneId() {
+        return mZone.getId();
+    }
+
+    /**
+     * Sets the source of the current time used by the default validator.
+     * @param clock {@link DateTimeClock}
+     */
+    public void setDateTimeClock(@NonNull DateTimeClock clock) {
+        mClock = clock;
+        if (mValidator instanceof DefaultDateTimeValidator) {
+            mValidator = new DefaultDateTimeValidator(clock);
+        }
+    }
+
+    @NonNull
+    public DateTimeClock getDateTimeClock() {
+        return mClock;
+    }
+
     public void setOnDateTimeChooseListener(OnDateTimeChooseListener listener) {
         mListener = listener;
     }
@@ -511,31 +1465,556 @@ public class DateTimePickerLayout extends ViewGroup implements
         return mListener;
     }
 
+    /**
+     * Adds a listener for date and time choosing events, in addition to
+     * the one set by {@link #setOnDateTimeChooseListener(OnDateTimeChooseListener)}.
+     *
+     * @param listener {@link OnDateTimeChooseListener}
+     */
+    public void addOnDateTimeChooseListener(@NonNull OnDateTimeChooseListener listener) {
+        final OnDateTimeChooseListener[] old = mChooseListeners;
+        for (OnDateTimeChooseListener l : old) {
+            if (l == listener) { return; }
+        }
+        final OnDateTimeChooseListener[] listeners = Arrays.copyOf(old, old.length + 1);
+        listeners[old.length] = listener;
+        mChooseListeners = listeners;
+    }
+
+    public void removeOnDateTimeChooseListener(@NonNull OnDateTimeChooseListener listener) {
+        final OnDateTimeChooseListener[] old = mChooseListeners;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == listener) {
+                if (old.length == 1) {
+                    mChooseListeners = NO_CHOOSE_LISTENERS;
+                    return;
+                }
+                final OnDateTimeChooseListener[] listeners = new OnDateTimeChooseListener[old.length - 1];
+                System.arraycopy(old, 0, listeners, 0, i);
+                System.arraycopy(old, i + 1, listeners, i, old.length - i - 1);
+                mChooseListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds a listener for changes of the chosen datetime, reported at most
+     * once per frame.
+     *
+     * @param listener {@link OnDateTimeChangeListener}
+     */
+    public void addOnDateTimeChangeListener(@NonNull OnDateTimeChangeListener listener) {
+        final OnDateTimeChangeListener[] old = mChangeListeners;
+        for (OnDateTimeChangeListener l : old) {
+            if (l == listener) { return; }
+        }
+        final OnDateTimeChangeListener[] listeners = Arrays.copyOf(old, old.length + 1);
+        listeners[old.length] = listener;
+        mChangeListeners = listeners;
+    }
+
+    public void removeOnDateTimeChangeListener(@NonNull OnDateTimeChangeListener listener) {
+        final OnDateTimeChangeListener[] old = mChangeListeners;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == listener) {
+                if (old.length == 1) {
+                    mChangeListeners = NO_CHANGE_LISTENERS;
+                    return;
+                }
+                final OnDateTimeChangeListener[] listeners = new OnDateTimeChangeListener[old.length - 1];
+                System.arraycopy(old, 0, listeners, 0, i);
+                System.arraycopy(old, i + 1, listeners, i, old.length - i - 1);
+                mChangeListeners = listeners;
+                return;
+            }
+        }
+    }
+
     public void setDatePickerCreateStrategy(@NonNull DatePickerCreateStrategy strategy) {
         mDatePickerStrategy = strategy;
+        mDateDialogStrategy = null;
+    }
+
+    /**
+     * Sets a strategy that creates any dialog to choose the date, not only a
+     * {@link DatePickerDialog}. It is used instead of the date picker create
+     * strategy until that is set again.
+     *
+     * @param strategy {@link DateDialogCreateStrategy}
+     */
+    public void setDateDialogCreateStrategy(@NonNull DateDialogCreateStrategy strategy) {
+        mDateDialogStrategy = strategy;
     }
 
     public void setTimePickerCreateStrategy(@NonNull TimePickerCreateStrategy strategy) {
         mTimePickerStrategy = strategy;
+        mTimeDialogStrategy = null;
+    }
+
+    /**
+     * Sets a strategy that creates any dialog to choose the time, not only a
+     * {@link TimePickerDialog}. It is used instead of the time picker create
+     * strategy until that is set again.
+     *
+     * @param strategy {@link TimeDialogCreateStrategy}
+     */
+    public void setTimeDialogCreateStrategy(@NonNull TimeDialogCreateStrategy strategy) {
+        mTimeDialogStrategy = strategy;
     }
 
     public void setInvalidDateTimeStrategy(@NonNull InvalidDateTimeStrategy strategy) {
         mInvalidStrategy = strategy;
     }
 
+    /**
+     * Displays the chosen date using the compiled format when possible. The
+     * text comes from the shared {@link FormattedTextCache}, or is written
+     * into {@link #mDateBuffer} when that cache is disabled. Nothing is set
+     * if the display already shows the chosen day.
+     */
+    private void displayChosenDate() {
+        final long epochMillis = mChosenMinute * EpochMath.MILLIS_PER_MINUTE;
+        final long localMillis = mChosenZone.toLocalMillis(epochMillis);
+        final long unit = (mCompiledDateFormat != null)
+                ? EpochMath.floorDiv(localMillis, mCompiledDateFormat.getResolution())
+                : NO_UNIT;
+        if (unit != NO_UNIT && unit == mDisplayedDateUnit) {
+            cancelPendingDateText();
+            return;
+        }
+
+        if (mTextExecutor != null) {
+            if (mPendingDateTask != null && unit != NO_UNIT
+                    && mPendingDateTask.isFor(mCompiledDateFormat, unit)) {
+                return; // Already being formatted
+            }
+            cancelPendingDateText();
+            mPendingDateTask = new DisplayTextTask(true, mCompiledDateFormat,
+                    mDateFormat, epochMillis, localMillis, unit);
+            mTextExecutor.execute(mPendingDateTask);
+        } else {
+            final PickerMetrics metrics = sMetrics;
+            final long start = (metrics != null) ? System.nanoTime() : 0L;
+            if (mCompiledDateFormat != null) {
+                final FormattedTextCache cache = FormattedTextCache.getInstance();
+                if (cache.getCapacity() > 0) {
+                    setDateText(cache.get(mCompiledDateFormat, localMillis));
+                } else {
+                    final int length = mCompiledDateFormat.format(localMillis, mDateBuffer);
+                    setDateText(mDateBuffer, length);
+                }
+                mDisplayedDateUnit = unit;
+            } else {
+                setDateText(mDateFormat.format(new Date(epochMillis)));
+            }
+            if (metrics != null) {
+                metrics.onEvent(PickerMetrics.EVENT_FORMAT, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Displays the chosen time using the compiled format when possible. The
+     * text comes from the shared {@link FormattedTextCache}, or is written
+     * into {@link #mTimeBuffer} when that cache is disabled. Nothing is set
+     * if the display already shows the chosen minute.
+     */
+    private void displayChosenTime() {
+        final long epochMillis = mChosenMinute * EpochMath.MILLIS_PER_MINUTE;
+        final long localMillis = mChosenZone.toLocalMillis(epochMillis);
+        final long unit = (mCompiledTimeFormat != null)
+                ? EpochMath.floorDiv(localMillis, mCompiledTimeFormat.getResolution())
+                : NO_UNIT;
+        if (unit != NO_UNIT && unit == mDisplayedTimeUnit) {
+            cancelPendingTimeText();
+            return;
+        }
+
+        if (mTextExecutor != null) {
+            if (mPendingTimeTask != null && unit != NO_UNIT
+                    && mPendingTimeTask.isFor(mCompiledTimeFormat, unit)) {
+                return; // Already being formatted
+            }
+            cancelPendingTimeText();
+            mPendingTimeTask = new DisplayTextTask(false, mCompiledTimeFormat,
+                    mTimeFormat, epochMillis, localMillis, unit);
+            mTextExecutor.execute(mPendingTimeTask);
+        } else {
+            final PickerMetrics metrics = sMetrics;
+            final long start = (metrics != null) ? System.nanoTime() : 0L;
+            if (mCompiledTimeFormat != null) {
+                final FormattedTextCache cache = FormattedTextCache.getInstance();
+                if (cache.getCapacity() > 0) {
+                    setTimeText(cache.get(mCompiledTimeFormat, localMillis));
+                } else {
+                    final int length = mCompiledTimeFormat.format(localMillis, mTimeBuffer);
+                    setTimeText(mTimeBuffer, length);
+                }
+                mDisplayedTimeUnit = unit;
+            } else {
+                setTimeText(mTimeFormat.format(new Date(epochMillis)));
+            }
+            if (metrics != null) {
+                metrics.onEvent(PickerMetrics.EVENT_FORMAT, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Called on the main thread when text formatted in the background is
+     * ready, setting it unless it was superseded in the meantime.
+     */
+    private void onDisplayTextReady(DisplayTextTask task) {
+        if (task == mPendingDateTask) {
+            mPendingDateTask = null;
+            setDateText(task.mText);
+            mDisplayedDateUnit = task.mUnit;
+        } else if (task == mPendingTimeTask) {
+            mPendingTimeTask = null;
+            setTimeText(task.mText);
+            mDisplayedTimeUnit = task.mUnit;
+        }
+    }
+
+    private void cancelPendingDateText() {
+        if (mPendingDateTask != null) {
+            mPendingDateTask.cancel();
+            mPendingDateTask = null;
+        }
+    }
+
+    private void cancelPendingTimeText() {
+        if (mPendingTimeTask != null) {
+            mPendingTimeTask.cancel();
+            mPendingTimeTask = null;
+        }
+    }
+
+    private void displayDefaultDate() {
+        if (mDisplayedDateUnit != DEFAULT_UNIT) {
+            setDateText(mDefaultDateText);
+            mDisplayedDateUnit = DEFAULT_UNIT;
+        }
+    }
+
+    private void displayDefaultTime() {
+        if (mDisplayedTimeUnit != DEFAULT_UNIT) {
+            setTimeText(mDefaultTimeText);
+            mDisplayedTimeUnit = DEFAULT_UNIT;
+        }
+    }
+
+    /**
+     * Schedules the change listeners to be told about the chosen datetime
+     * on the next frame, unless already scheduled. While detached, they are
+     * told once this picker is attached again.
+     */
+    private void onDateTimeChanged() {
+        if (mChangePending || mChangeListeners.length == 0) {
+            return;
+        }
+        mChangePending = true;
+        if (ViewCompat.isAttachedToWindow(this)) {
+            Choreographer.getInstance().postFrameCallback(mChangeDispatcher);
+        }
+    }
+
+    /**
+     * Stores the given value as the chosen datetime.
+     */
+    private void setChosenValue(@NonNull DateTimeValue value) {
+        mChosenMinute = value.getEpochMinute();
+        mChosenZone = value.getZoneOffsets();
+        mChosenDate = value;
+    }
+
+    private void onInvalidDate() {
+        // The strategy may change the text of the display directly
+        mDisplayedDateUnit = NO_UNIT;
+        mInvalidStrategy.onInvalidDate(this, mDateView);
+    }
+
+    private void onInvalidTime() {
+        mDisplayedTimeUnit = NO_UNIT;
+        mInvalidStrategy.onInvalidTime(this, mTimeView);
+    }
+
+    /**
+     * Shows either the chosen date and time or the default text on
+     * each display.
+     */
+    private void refreshDisplays() {
+        mDisplayedDateUnit = NO_UNIT;
+        mDisplayedTimeUnit = NO_UNIT;
+        if (mDateChosen) {
+            displayChosenDate();
+        } else {
+            displayDefaultDate();
+        }
+        if (mTimeChosen) {
+            displayChosenTime();
+        } else {
+            displayDefaultTime();
+        }
+    }
+
+    private void setDateText(CharSequence text) {
+        cancelPendingDateText();
+        mDisplayedDateUnit = NO_UNIT;
+        if (mDateView != null) {
+            final boolean requested = mDateView.isLayoutRequested();
+            mDateView.setText(text);
+            onTextViewChanged(mDateView, requested);
+        } else {
+            onRegionTextChanged(mDateRegion, mDateRegion.setText(text));
+        }
+    }
+
+    private void setDateText(char[] buffer, int length) {
+        cancelPendingDateText();
+        mDisplayedDateUnit = NO_UNIT;
+        if (mDateView != null) {
+            final boolean requested = mDateView.isLayoutRequested();
+            mDateView.setText(buffer, 0, length);
+            onTextViewChanged(mDateView, requested);
+        } else {
+            onRegionTextChanged(mDateRegion, mDateRegion.setText(buffer, 0, length));
+        }
+    }
+
+    private void setTimeText(CharSequence text) {
+        cancelPendingTimeText();
+        mDisplayedTimeUnit = NO_UNIT;
+        if (mTimeView != null) {
+            final boolean requested = mTimeView.isLayoutRequested();
+            mTimeView.setText(text);
+            onTextViewChanged(mTimeView, requested);
+        } else {
+            onRegionTextChanged(mTimeRegion, mTimeRegion.setText(text));
+        }
+    }
+
+    private void setTimeText(char[] buffer, int length) {
+        cancelPendingTimeText();
+        mDisplayedTimeUnit = NO_UNIT;
+        if (mTimeView != null) {
+            final boolean requested = mTimeView.isLayoutRequested();
+            mTimeView.setText(buffer, 0, length);
+            onTextViewChanged(mTimeView, requested);
+        } else {
+            onRegionTextChanged(mTimeRegion, mTimeRegion.setText(buffer, 0, length));
+        }
+    }
+
+    /**
+     * Counts a text view's text change as an avoided layout pass if the
+     * text view only invalidated itself, which it does when its width is
+     * fixed and its height did not change.
+     *
+     * @param requested True if a layout was already requested before the change
+     */
+    private void onTextViewChanged(TextView view, boolean requested) {
+        if (!requested && !view.isLayoutRequested()) {
+            mAvoidedLayoutCount++;
+        }
+    }
+
+    private void onRegionTextChanged(FlatTextRegion region, boolean sizeChanged) {
+        if (!sizeChanged) {
+            mAvoidedLayoutCount++;
+        }
+        onRegionChanged(region, sizeChanged);
+    }
+
+    /**
+     * Reserves the width of the widest text each display can show: any
+     * value of its compiled format, its default text, or its error text.
+     * Displays using a custom {@link DateFormat} cannot be predicted, so
+     * they just wrap their text.
+     */
+    private void updateReservedWidths() {
+        if (mDateView == null && mDateRegion == null) {
+            return; // Called by the constructor before displays exist
+        }
+
+        final PaintTextMeasurer measurer = new PaintTextMeasurer(
+                (mDateView != null) ? mDateView.getPaint() : mFlatPaint);
+        final int dateWidth = measureReservedWidth(mCompiledDateFormat, measurer,
+                mDefaultDateText, mDefaultDateErrorText);
+        final int timeWidth = measureReservedWidth(mCompiledTimeFormat, measurer,
+                mDefaultTimeText, mDefaultTimeErrorText);
+        if (dateWidth == mReservedDateWidth && timeWidth == mReservedTimeWidth) {
+            return;
+        }
+        mReservedDateWidth = dateWidth;
+        mReservedTimeWidth = timeWidth;
+
+        if (mDateView != null) {
+            if (mDateView.getError() == null) {
+                applyReservedWidth(mDateView, mReservedDateWidth);
+            }
+            if (mTimeView.getError() == null) {
+                applyReservedWidth(mTimeView, mReservedTimeWidth);
+            }
+        } else {
+            mDateRegion.setMinWidth(mReservedDateWidth);
+            mTimeRegion.setMinWidth(mReservedTimeWidth);
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    private int measureReservedWidth(@Nullable CompiledDateFormat format,
+                                     PaintTextMeasurer measurer,
+                                     CharSequence defaultText,
+                                     CharSequence errorText) {
+        if (format == null) {
+            return 0;
+        }
+        float width = format.measureMaxWidth(measurer);
+        if (defaultText != null) {
+            width = Math.max(width, measurer.measure(defaultText));
+        }
+        if (errorText != null) {
+            width = Math.max(width, measurer.measure(errorText));
+        }
+        // Names are measured apart from their neighbors, so allow 1px of
+        // slack for kerning between them
+        return (int)Math.ceil(width) + 1 + (mTextPadding << 1);
+    }
+
+    /**
+     * Fixes the width of a text view, or lets it wrap its text if the
+     * width is 0, only requesting a layout pass if the width changed.
+     */
+    private void applyReservedWidth(TextView view, int width) {
+        final int lpWidth = (width > 0) ? width : LayoutParams.WRAP_CONTENT;
+        final LayoutParams lp = view.getLayoutParams();
+        if (lp.width != lpWidth) {
+            lp.width = lpWidth;
+            view.setLayoutParams(lp);
+        }
+    }
+
+    /**
+     * Called when a flat display has changed, only requesting a layout
+     * pass if its size changed.
+     */
+    private void onRegionChanged(FlatTextRegion region, boolean sizeChanged) {
+        if (sizeChanged) {
+            requestLayout();
+        }
+        invalidate();
+        mAccessibilityHelper.invalidateVirtualView(region == mDateRegion
+                ? FlatAccessibilityHelper.DATE_ID : FlatAccessibilityHelper.TIME_ID);
+    }
+
+    private void onFlatPaintChanged() {
+        updateReservedWidths();
+        mDateRegion.onPaintChanged();
+        mTimeRegion.onPaintChanged();
+        requestLayout();
+        invalidate();
+    }
+
+    private void releasePressedRegion() {
+        if (mPressedRegion != null) {
+            mPressedRegion.setPressed(false, 0, 0);
+            mPressedRegion = null;
+        }
+    }
+
+    /**
+     * Invokes the appropriate strategy to create a date or time dialog
+     * to show.
+     *
+     * @param date True if the date display was clicked
+     */
+    private void onDisplayClicked(boolean date) {
+        final PickerMetrics metrics = sMetrics;
+        final long start = System.nanoTime();
+        if (date) { // Show date picker dialog
+            mShownDialog = (mDateDialogStrategy != null)
+                    ? mDateDialogStrategy.createDialog(getContext(), DateTimePickerLayout.this)
+                    : mDatePickerStrategy.createPicker(getContext(), DateTimePickerLayout.this);
+        } else { // Show time picker dialog
+            mShownDialog = (mTimeDialogStrategy != null)
+                    ? mTimeDialogStrategy.createDialog(getContext(), DateTimePickerLayout.this)
+                    : mTimePickerStrategy.createPicker(getContext(), DateTimePickerLayout.this);
+        }
+        mShownDialog.show();
+        mLastDialogShowNanos = System.nanoTime() - start;
+        if (metrics != null) {
+            metrics.onEvent(PickerMetrics.EVENT_DIALOG_SHOW, mLastDialogShowNanos);
+        }
+    }
+
+    /**
+     * Checks a newly chosen selection using {@link #mValidator}, reporting
+     * how long it took.
+     */
+    private int checkSelection(DateTimeSelection selection) {
+        return checkChosen(selection.getValue(), selection.getChosenFlags());
+    }
+
+    private int checkChosen(DateTimeValue value, int chosenFlags) {
+        final PickerMetrics metrics = sMetrics;
+        if (metrics == null) {
+            return DateTimeSelection.check(mValidator, value, chosenFlags);
+        }
+        final long start = System.nanoTime();
+        final int invalid = DateTimeSelection.check(mValidator, value, chosenFlags);
+        metrics.onEvent(PickerMetrics.EVENT_VALIDATE, System.nanoTime() - start);
+        return invalid;
+    }
+
+    /**
+     * Gets the chosen datetime or, if nothing is chosen yet, the current
+     * time of {@link #mClock} in {@link #mZone}.
+     */
+    private DateTimeValue getChosenOrNow() {
+        final DateTimeValue chosen = getChosenValue();
+        if (chosen != null) {
+            return chosen;
+        }
+        return DateTimeValue.of(mClock.currentTimeMillis(), mZone.getId());
+    }
+
     private void drawIcon(final Canvas canvas) {
-        final int height = mDateView.getMeasuredHeight();
+        final int height = getDisplayHeight();
 
-        float dx = ViewCompat.getPaddingStart(mDateView);
+        float dx = mTextPadding;
         float dy = (mIconSize < height)
                 ? ((height - mIconSize) >> 1) + 2 : 0;
 
+        if (mIconRes != 0) {
+            // Draw the shared bitmap of the icon
+            if (mIconSize <= 0) { return; }
+            if (mIconBitmap == null) {
+                mIconBitmap = IconBitmapCache.getInstance(getContext())
+                        .get(getContext(), mIconRes, mIconSize, mIconColor);
+            }
+            canvas.drawBitmap(mIconBitmap, dx, dy, null);
+            return;
+        }
+
         canvas.save();
         canvas.translate(dx,dy);
         mIcon.draw(canvas);
         canvas.restore();
     }
 
+    /**
+     * Creates the icon of the style as a drawable, sized and tinted.
+     */
+    private Drawable createStyledIcon() {
+        final Drawable icon = mStyle.newIcon(getContext());
+        icon.setBounds(0, 0, mIconSize, mIconSize);
+        icon.setColorFilter(mIconColor, PorterDuff.Mode.SRC_ATOP);
+        return icon;
+    }
+
     private int getNeededWidth() {
         int neededSize = 0;
 
@@ -548,27 +2027,67 @@ public class DateTimePickerLayout extends ViewGroup implements
         // We need to account for the needed width to display
         // the current text for the date and time views with
         // some space in between them
-        neededSize += mDateView.getMeasuredWidth() + mSixteenDp +
-                mTimeView.getMeasuredWidth();
+        neededSize += getDateDisplayWidth() + mSixteenDp +
+                getTimeDisplayWidth();
 
         return neededSize;
     }
 
     private int getNeededHeight() {
-        return Math.max(mIconSize, mDateView.getMeasuredHeight());
+        return Math.max(mIconSize, getDisplayHeight());
+    }
+
+    private int getDateDisplayWidth() {
+        return (mDateView != null) ? mDateView.getMeasuredWidth() : mDateRegion.getWidth();
+    }
+
+    private int getTimeDisplayWidth() {
+        return (mTimeView != null) ? mTimeView.getMeasuredWidth() : mTimeRegion.getWidth();
+    }
+
+    private int getDisplayHeight() {
+        return (mDateView != null) ? mDateView.getMeasuredHeight() : mDateRegion.getHeight();
     }
 
     private boolean adjustForIcon() {
         return (mIconFlags&1)==1 || (mIconFlags&2)==2;
     }
 
+    private void createTextViews() {
+        mDateView = createTextViewWithProperties();
+        addView(mDateView);
+        mTimeView = createTextViewWithProperties();
+        mTimeView.setGravity(Gravity.END);
+        addView(mTimeView);
+    }
+
+    private void createFlatRegions() {
+        mFlatPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        mFlatPaint.density = getResources().getDisplayMetrics().density;
+        mFlatPaint.setTextSize(mTextSize);
+        mFlatPaint.setTypeface(mTypeface);
+
+        mDateRegion = new FlatTextRegion(this, mFlatPaint);
+        mDateRegion.setPadding(mTextPadding);
+        mDateRegion.setBackground(getSelectableItemBackground());
+        mTimeRegion = new FlatTextRegion(this, mFlatPaint);
+        mTimeRegion.setPadding(mTextPadding);
+        mTimeRegion.setAlignEnd(true);
+        mTimeRegion.setBackground(getSelectableItemBackground());
+
+        mAccessibilityHelper = new FlatAccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+        mFocusableBeforeFlat = isFocusable();
+        setFocusable(true);
+    }
+
+    private Drawable getSelectableItemBackground() {
+        // Shares the 'selectable item' background resolved by the style
+        return mStyle.newItemBackground(getResources());
+    }
+
     private TextView createTextViewWithProperties() {
-        // Get the 'selectable item' background from attributes
-        final Drawable dr;
-        TypedArray a = getContext().obtainStyledAttributes(
-                new int[] { R.attr.selectableItemBackground });
-        dr = a.getDrawable(0);
-        a.recycle();
+        final Drawable dr = getSelectableItemBackground();
 
         // Create the text view and set it up to be clickable
         final TextView tv = new TextView(getContext());
@@ -589,6 +2108,50 @@ public class DateTimePickerLayout extends ViewGroup implements
         return tv;
     }
 
+    /**
+     * Implementation of {@link MessageQueue.IdleHandler} that creates the
+     * dialogs of the activity's {@link PickerDialogCache} once.
+     */
+    private final MessageQueue.IdleHandler mPrewarmHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (mCacheDialogs) {
+                final PickerDialogCache cache = PickerDialogCache.from(getContext());
+                if (cache != null) {
+                    cache.prewarm();
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Implementation of {@link Choreographer.FrameCallback} that reports
+     * the changes made since the last frame to the change listeners once.
+     */
+    private final Choreographer.FrameCallback mChangeDispatcher = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mChangePending = false;
+            final DateTimeValue value = getChosenValue();
+            for (OnDateTimeChangeListener listener : mChangeListeners) {
+                listener.onDateTimeChanged(DateTimePickerLayout.this, value);
+            }
+        }
+    };
+
+    /**
+     * Implementation of {@link DialogInterface.OnDismissListener}, used by
+     * dialogs that are not shared through {@link PickerDialogCache}, that
+     * forgets the shown dialog once it is dismissed or canceled.
+     */
+    private final DialogInterface.OnDismissListener mDismissHandler = new DialogInterface.OnDismissListener() {
+        @Override
+        public void onDismiss(DialogInterface dialog) {
+            onDialogDismissed((Dialog)dialog);
+        }
+    };
+
     /**
      * Implementation of {@link OnClickListener}, used by the date and time
      * text displays, that will invoke the appropriate strategy to create a
@@ -597,13 +2160,7 @@ public class DateTimePickerLayout extends ViewGroup implements
     private final OnClickListener mClickHandler = new OnClickListener() {
         @Override
         public void onClick(View v) {
-            if (v == mDateView) { // Show date picker dialog
-                mDatePickerStrategy.createPicker(getContext(),
-                        DateTimePickerLayout.this).show();
-            } else { // Show time picker dialog
-                mTimePickerStrategy.createPicker(getContext(),
-                        DateTimePickerLayout.this).show();
-            }
+            onDisplayClicked(v == mDateView);
         }
     };
 
@@ -611,59 +2168,217 @@ public class DateTimePickerLayout extends ViewGroup implements
 
     /**
      * Nested inner-class implementation of {@link DateTimeValidator}
-     * that affords basic validation.
+     * that affords basic validation: dates from today onwards and times
+     * after now, by the clock of this picker. Parts that are not chosen are
+     * left to {@link #checkDateTime()}, so that batches check only the
+     * instants they are given.
+     */
+    private static final class DefaultDateTimeValidator extends ClockDateTimeValidator {
+        DefaultDateTimeValidator(DateTimeClock clock) {
+            super(clock);
+        }
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link InvalidDateTimeStrategy}
+     * that shows the default error message and sets the text view with error.
+     */
+    private final class DefaultInvalidDateTimeStrategy implements InvalidDateTimeStrategy {
+        @Override
+        public void onInvalidDate(DateTimePickerLayout parent, @Nullable TextView view) {
+            // Display error on the date text view
+            setDateError("Date is invalid!");
+            setDateText(mDefaultDateErrorText);
+        }
+
+        @Override
+        public void onInvalidTime(DateTimePickerLayout parent, @Nullable TextView view) {
+            // Display error on the time text view
+            setTimeError("Time is invalid!");
+            setTimeText(mDefaultTimeErrorText);
+        }
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link Runnable} that formats the
+     * text of a display on {@link #mTextExecutor}, and measures it with a
+     * copy of the display paint so that the glyph layouts are already cached
+     * when the display lays it out. It then runs again on the main thread
+     * to set the text, unless cancelled.
      */
-    private final class DefaultDateTimeValidator implements DateTimeValidator {
+    private final class DisplayTextTask implements Runnable {
+        private final CompiledDateFormat mFormat;
+        private final DateFormat mCustomFormat;
+        private final long mEpochMillis;
+        private final long mLocalMillis;
+        private final long mUnit;
+        private final TextPaint mPaint;
+        private volatile boolean mCancelled;
+        /* Set in the background, then read on the main thread */
+        private String mText;
+
+
+        DisplayTextTask(boolean date, CompiledDateFormat format, DateFormat customFormat,
+                        long epochMillis, long localMillis, long unit) {
+            mFormat = format;
+            // Date formats are not thread-safe, so use a copy
+            mCustomFormat = (format == null) ? (DateFormat)customFormat.clone() : null;
+            mEpochMillis = epochMillis;
+            mLocalMillis = localMillis;
+            mUnit = unit;
+            mPaint = new TextPaint((mDateView != null)
+                    ? (date ? mDateView : mTimeView).getPaint()
+                    : mFlatPaint);
+        }
+
         @Override
-        public boolean validateDate(@Nullable Calendar chosenDate) {
-            if (!mDateChosen || chosenDate == null) {
-                return false;
+        public void run() {
+            if (mCancelled) {
+                return;
+            }
+            if (mText != null) {
+                // Back on the main thread
+                onDisplayTextReady(this);
+                return;
             }
 
-            // Make sure to only compare date and not time
-            // so that user can pick the current day
-            final Calendar now = Calendar.getInstance();
-            now.clear(Calendar.HOUR_OF_DAY);
-            now.clear(Calendar.MINUTE);
-            now.clear(Calendar.SECOND);
+            final PickerMetrics metrics = sMetrics;
+            final long start = (metrics != null) ? System.nanoTime() : 0L;
+            if (mFormat == null) {
+                mText = mCustomFormat.format(new Date(mEpochMillis));
+            } else if (FormattedTextCache.getInstance().getCapacity() > 0) {
+                mText = FormattedTextCache.getInstance().get(mFormat, mLocalMillis);
+            } else {
+                mText = mFormat.format(mLocalMillis);
+            }
+            if (metrics != null) {
+                metrics.onEvent(PickerMetrics.EVENT_FORMAT, System.nanoTime() - start);
+            }
+            // Warms the glyph cache, so measuring on the main thread is cheap
+            mPaint.measureText(mText);
+            sMainHandler.post(this);
+        }
 
-            final Calendar temp = (Calendar)mChosenDate.clone();
-            temp.clear(Calendar.HOUR_OF_DAY);
-            temp.clear(Calendar.MINUTE);
-            temp.clear(Calendar.SECOND);
+        boolean isFor(CompiledDateFormat format, long unit) {
+            return mFormat == format && mUnit == unit;
+        }
 
-            return temp.after(now) || temp.equals(now);
+        void cancel() {
+            mCancelled = true;
+        }
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link BaseSavedState} that saves
+     * the chosen epoch minute and the state flags as two primitives, rather
+     * than a serialized calendar.
+     */
+    static final class SavedState extends BaseSavedState {
+        long mEpochMinute;
+        int mFlags;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            mEpochMinute = in.readLong();
+            mFlags = in.readInt();
         }
 
         @Override
-        public boolean validateTime(@Nullable Calendar chosenTime) {
-            if (!mTimeChosen || chosenTime == null) {
-                return false;
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeLong(mEpochMinute);
+            out.writeInt(mFlags);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
             }
+        };
+    }
 
-            final Calendar now = Calendar.getInstance();
-            return mChosenDate.after(now);
+    /**
+     * Nested inner-class implementation of {@link CompiledDateFormat.TextMeasurer}
+     * that measures text with the paint of the date and time displays.
+     */
+    private static final class PaintTextMeasurer implements CompiledDateFormat.TextMeasurer {
+        private final Paint mPaint;
+
+        PaintTextMeasurer(Paint paint) {
+            mPaint = paint;
+        }
+
+        @Override
+        public float measure(CharSequence text) {
+            return mPaint.measureText(text, 0, text.length());
         }
     }
 
 
     /**
-     * Nested inner-class implementation of {@link InvalidDateTimeStrategy}
-     * that shows the default error message and sets the text view with error.
+     * Nested inner-class implementation of {@link ExploreByTouchHelper} that
+     * exposes the flat date and time displays as virtual views, so that they
+     * can be found and clicked by accessibility services and the keyboard.
      */
-    private final class DefaultInvalidDateTimeStrategy implements InvalidDateTimeStrategy {
+    private final class FlatAccessibilityHelper extends ExploreByTouchHelper {
+        static final int DATE_ID = 0;
+        static final int TIME_ID = 1;
+
+        FlatAccessibilityHelper() {
+            super(DateTimePickerLayout.this);
+        }
+
         @Override
-        public void onInvalidDate(DateTimePickerLayout parent, TextView view) {
-            // Display error on the date text view
-            mDateView.setError("Date is invalid!");
-            mDateView.setText(mDefaultDateErrorText);
+        protected int getVirtualViewAt(float x, float y) {
+            if (mDateRegion.contains((int)x, (int)y)) {
+                return DATE_ID;
+            } else if (mTimeRegion.contains((int)x, (int)y)) {
+                return TIME_ID;
+            }
+            return INVALID_ID;
         }
 
         @Override
-        public void onInvalidTime(DateTimePickerLayout parent, TextView view) {
-            // Display error on the time text view
-            mTimeView.setError("Time is invalid!");
-            mTimeView.setText(mDefaultTimeErrorText);
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            virtualViewIds.add(DATE_ID);
+            virtualViewIds.add(TIME_ID);
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId,
+                                                    @NonNull AccessibilityNodeInfoCompat node) {
+            final FlatTextRegion region = (virtualViewId == DATE_ID) ? mDateRegion : mTimeRegion;
+            node.setClassName(TextView.class.getName());
+            node.setText(region.getText());
+            node.setError(region.getError());
+            node.setContentInvalid(region.getError() != null);
+            node.setBoundsInParent(region.getBounds());
+            node.setFocusable(true);
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action,
+                                                        @Nullable Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                onDisplayClicked(virtualViewId == DATE_ID);
+                return true;
+            }
+            return false;
         }
     }
 
@@ -671,19 +2386,34 @@ public class DateTimePickerLayout extends ViewGroup implements
     /**
      * Nested inner-class implementation of {@link DatePickerCreateStrategy}
      * that affords creating a basic Android date picker with the default date
-     * set to now or a valid previously chosen date.
+     * set to now or a valid previously chosen date, reusing the dialog of the
+     * activity's {@link PickerDialogCache} if dialogs are cached.
      */
     private final class NowOrChosenDateCreateStrategy implements DatePickerCreateStrategy {
         @Override
         public DatePickerDialog createPicker(Context c,
                                              DatePickerDialog.OnDateSetListener listener) {
-            if (mChosenDate == null) {
-                mChosenDate = Calendar.getInstance();
+            final PickerMetrics metrics = sMetrics;
+            final long start = (metrics != null) ? System.nanoTime() : 0L;
+            final DateTimeValue initial = getChosenOrNow();
+            final PickerDialogCache cache = mCacheDialogs
+                    ? PickerDialogCache.from(getContext()) : null;
+            final DatePickerDialog dialog = (cache != null)
+                    ? cache.obtainDatePicker(listener,
+                            initial.getYear(),
+                            initial.getMonth(),
+                            initial.getDayOfMonth())
+                    : new DatePickerDialog(getContext(), listener,
+                            initial.getYear(),
+                            initial.getMonth(),
+                            initial.getDayOfMonth());
+            if (cache == null) {
+                dialog.setOnDismissListener(mDismissHandler);
+            }
+            if (metrics != null) {
+                metrics.onEvent(PickerMetrics.EVENT_DIALOG_CREATE, System.nanoTime() - start);
             }
-            return new DatePickerDialog(getContext(), listener,
-                    mChosenDate.get(Calendar.YEAR),
-                    mChosenDate.get(Calendar.MONTH),
-                    mChosenDate.get(Calendar.DAY_OF_MONTH));
+            return dialog;
         }
     }
 
@@ -691,19 +2421,34 @@ public class DateTimePickerLayout extends ViewGroup implements
     /**
      * Nested inner-class implementation of {@link DatePickerCreateStrategy}
      * that affords creating a basic Android time picker with the default time
-     * set to now or a valid previously chosen time.
+     * set to now or a valid previously chosen time, reusing the dialog of the
+     * activity's {@link PickerDialogCache} if dialogs are cached.
      */
     private final class NowOrChosenTimeCreateStrategy implements TimePickerCreateStrategy {
         @Override
         public TimePickerDialog createPicker(Context c,
                                              TimePickerDialog.OnTimeSetListener listener) {
-            if (mChosenDate == null) {
-                mChosenDate = Calendar.getInstance();
+            final PickerMetrics metrics = sMetrics;
+            final long start = (metrics != null) ? System.nanoTime() : 0L;
+            final DateTimeValue initial = getChosenOrNow();
+            final PickerDialogCache cache = mCacheDialogs
+                    ? PickerDialogCache.from(getContext()) : null;
+            final TimePickerDialog dialog = (cache != null)
+                    ? cache.obtainTimePicker(listener,
+                            initial.getHourOfDay(),
+                            initial.getMinute(),
+                            android.text.format.DateFormat.is24HourFormat(c))
+                    : new TimePickerDialog(getContext(), listener,
+                            initial.getHourOfDay(),
+                            initial.getMinute(),
+                            android.text.format.DateFormat.is24HourFormat(c));
+            if (cache == null) {
+                dialog.setOnDismissListener(mDismissHandler);
+            }
+            if (metrics != null) {
+                metrics.onEvent(PickerMetrics.EVENT_DIALOG_CREATE, System.nanoTime() - start);
             }
-            return new TimePickerDialog(getContext(), listener,
-                    mChosenDate.get(Calendar.HOUR),
-                    mChosenDate.get(Calendar.MINUTE),
-                    false);
+            return dialog;
         }
     }
 }
\ No newline at end of file
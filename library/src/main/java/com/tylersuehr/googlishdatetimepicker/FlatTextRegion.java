@@ -0,0 +1,230 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.graphics.drawable.DrawableCompat;
+import android.text.BoringLayout;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.view.View;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * A clickable region of text drawn directly by {@link DateTimePickerLayout}
+ * when it uses flat rendering, standing in for a child {@link android.widget.TextView}.
+ *
+ * The text layout is cached and only rebuilt when the text or paint changes,
+ * reusing the previous {@link BoringLayout} whenever the text is boring (a
+ * single line of left-to-right text, like a formatted date).
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+final class FlatTextRegion {
+    private static final int[] STATE_ENABLED = { android.R.attr.state_enabled };
+    private static final int[] STATE_PRESSED = {
+            android.R.attr.state_pressed, android.R.attr.state_enabled };
+
+    private final View mHost;
+    private final TextPaint mPaint;
+    private final BoringLayout.Metrics mMetrics = new BoringLayout.Metrics();
+    private final Rect mBounds = new Rect();
+    /* Wraps a char buffer so it can be laid out without copying */
+    private final CharBufferText mBufferText = new CharBufferText();
+
+    private CharSequence mText = "";
+    private CharSequence mError;
+    private Layout mLayout;
+    private Drawable mBackground;
+    private int mPadding;
+    /* Width reserved for the widest expected text, so that changing
+       the text does not change the size of this region */
+    private int mMinWidth;
+    /* True if the text is drawn at the end of the region */
+    private boolean mAlignEnd;
+
+
+    FlatTextRegion(View host, TextPaint paint) {
+        mHost = host;
+        mPaint = paint;
+        rebuildLayout();
+    }
+
+    /**
+     * Sets the text of this region.
+     *
+     * @param text Text to show
+     * @return True if the size of this region changed
+     */
+    boolean setText(@NonNull CharSequence text) {
+        final int oldWidth = getWidth();
+        final int oldHeight = getHeight();
+        mText = text;
+        rebuildLayout();
+        return getWidth() != oldWidth || getHeight() != oldHeight;
+    }
+
+    /**
+     * Sets the text of this region to a slice of a char buffer. The buffer
+     * must not change until the next call to set the text.
+     *
+     * @return True if the size of this region changed
+     */
+    boolean setText(char[] buffer, int start, int length) {
+        mBufferText.set(buffer, start, length);
+        return setText(mBufferText);
+    }
+
+    @NonNull
+    CharSequence getText() {
+        return mText;
+    }
+
+    void setError(@Nullable CharSequence error) {
+        mError = error;
+    }
+
+    @Nullable
+    CharSequence getError() {
+        return mError;
+    }
+
+    void setPadding(int padding) {
+        mPadding = padding;
+    }
+
+    void setMinWidth(int minWidth) {
+        mMinWidth = minWidth;
+    }
+
+    void setAlignEnd(boolean alignEnd) {
+        mAlignEnd = alignEnd;
+    }
+
+    /**
+     * Rebuilds the text layout after the shared paint has changed.
+     */
+    void onPaintChanged() {
+        rebuildLayout();
+    }
+
+    int getWidth() {
+        return Math.max(mMinWidth, mLayout.getWidth() + (mPadding << 1));
+    }
+
+    int getHeight() {
+        return mLayout.getHeight() + (mPadding << 1);
+    }
+
+    void layout(int left, int top) {
+        mBounds.set(left, top, left + getWidth(), top + getHeight());
+        if (mBackground != null) {
+            mBackground.setBounds(mBounds);
+        }
+    }
+
+    @NonNull
+    Rect getBounds() {
+        return mBounds;
+    }
+
+    boolean contains(int x, int y) {
+        return mBounds.contains(x, y);
+    }
+
+    void setBackground(@Nullable Drawable background) {
+        if (mBackground != null) {
+            mBackground.setCallback(null);
+        }
+        mBackground = background;
+        if (mBackground != null) {
+            mBackground.setCallback(mHost);
+            mBackground.setState(STATE_ENABLED);
+            mBackground.setBounds(mBounds);
+        }
+    }
+
+    @Nullable
+    Drawable getBackground() {
+        return mBackground;
+    }
+
+    void setPressed(boolean pressed, float x, float y) {
+        if (mBackground != null) {
+            DrawableCompat.setHotspot(mBackground, x, y);
+            mBackground.setState(pressed ? STATE_PRESSED : STATE_ENABLED);
+        }
+    }
+
+    void draw(Canvas canvas, int textColor, int errorColor) {
+        if (mBackground != null) {
+            mBackground.draw(canvas);
+        }
+
+        mPaint.setColor(mError != null ? errorColor : textColor);
+        canvas.save();
+        final int dx = mAlignEnd
+                ? mBounds.right - mPadding - mLayout.getWidth()
+                : mBounds.left + mPadding;
+        canvas.translate(dx, mBounds.top + mPadding);
+        mLayout.draw(canvas);
+        canvas.restore();
+    }
+
+    private void rebuildLayout() {
+        final BoringLayout.Metrics boring = BoringLayout.isBoring(mText, mPaint, mMetrics);
+        if (boring != null) {
+            mLayout = (mLayout instanceof BoringLayout)
+                    ? ((BoringLayout)mLayout).replaceOrMake(mText, mPaint, boring.width,
+                            Layout.Alignment.ALIGN_NORMAL, 1f, 0f, boring, true)
+                    : BoringLayout.make(mText, mPaint, boring.width,
+                            Layout.Alignment.ALIGN_NORMAL, 1f, 0f, boring, true);
+        } else {
+            final int width = (int)Math.ceil(Layout.getDesiredWidth(mText, mPaint));
+            mLayout = new StaticLayout(mText, mPaint, width,
+                    Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+        }
+    }
+
+
+    /**
+     * Mutable {@link CharSequence} view over a slice of a char buffer.
+     */
+    private static final class CharBufferText implements CharSequence {
+        private char[] mBuffer;
+        private int mStart;
+        private int mLength;
+
+        void set(char[] buffer, int start, int length) {
+            mBuffer = buffer;
+            mStart = start;
+            mLength = length;
+        }
+
+        @Override
+        public int length() {
+            return mLength;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return mBuffer[mStart + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(mBuffer, mStart + start, end - start);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return new String(mBuffer, mStart, mLength);
+        }
+    }
+}
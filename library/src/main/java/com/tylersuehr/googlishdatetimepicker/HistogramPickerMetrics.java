@@ -0,0 +1,160 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Implementation of {@link PickerMetrics} that keeps a histogram of the
+ * timings of each event, with one bucket per power of two nanoseconds.
+ *
+ * Recording is lock-free: it only increments atomic counters, so it can be
+ * left on in the field. Percentiles are estimated as the upper bound of the
+ * bucket they fall in, so they are within a factor of two, which is enough
+ * to compare builds and spot regressions.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class HistogramPickerMetrics implements PickerMetrics {
+    private static final int BUCKETS = 64;
+    private static final String[] NAMES = {
+            "inflate", "measure", "layout", "format", "validate", "dialogCreate", "dialogShow"
+    };
+
+    /* Bucket counts of every event, BUCKETS per event */
+    private final AtomicLongArray mCounts = new AtomicLongArray(EVENT_COUNT * BUCKETS);
+    private final AtomicLongArray mTotals = new AtomicLongArray(EVENT_COUNT);
+    private final AtomicLongArray mMaxes = new AtomicLongArray(EVENT_COUNT);
+
+
+    @Override
+    public void onEvent(int event, long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        mCounts.incrementAndGet(event * BUCKETS + bucketOf(nanos));
+        mTotals.addAndGet(event, nanos);
+        long max;
+        while (nanos > (max = mMaxes.get(event))) {
+            if (mMaxes.compareAndSet(event, max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount(int event) {
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            count += mCounts.get(event * BUCKETS + b);
+        }
+        return count;
+    }
+
+    public long getTotalNanos(int event) {
+        return mTotals.get(event);
+    }
+
+    public long getMaxNanos(int event) {
+        return mMaxes.get(event);
+    }
+
+    /**
+     * Estimates a percentile of the timings of an event.
+     *
+     * @param event One of the EVENT constants
+     * @param percentile Percentile, from 0 to 100
+     * @return Upper bound of the percentile in nanoseconds, or 0 if none
+     */
+    public long getPercentileNanos(int event, double percentile) {
+        final long count = getCount(event);
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long)Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += mCounts.get(event * BUCKETS + b);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(b), getMaxNanos(event));
+            }
+        }
+        return getMaxNanos(event);
+    }
+
+    /**
+     * Clears all histograms. Events reported meanwhile may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < mCounts.length(); i++) {
+            mCounts.set(i, 0);
+        }
+        for (int e = 0; e < EVENT_COUNT; e++) {
+            mTotals.set(e, 0);
+            mMaxes.set(e, 0);
+        }
+    }
+
+    /**
+     * Writes one line per reported event with its count and timings in
+     * microseconds, i.e. to a file.
+     *
+     * @param out {@link Writer}
+     * @throws IOException If writing fails
+     */
+    public void dump(@NonNull Writer out) throws IOException {
+        for (int e = 0; e < EVENT_COUNT; e++) {
+            final long count = getCount(e);
+            if (count == 0) {
+                continue;
+            }
+            out.write(NAMES[e]);
+            out.write(" count=" + count);
+            out.write(" mean=" + micros(getTotalNanos(e) / count));
+            out.write(" p50=" + micros(getPercentileNanos(e, 50)));
+            out.write(" p90=" + micros(getPercentileNanos(e, 90)));
+            out.write(" p99=" + micros(getPercentileNanos(e, 99)));
+            out.write(" max=" + micros(getMaxNanos(e)));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Logs the lines of {@link #dump(Writer)} to logcat.
+     *
+     * @param tag Log tag
+     */
+    public void dumpToLog(@NonNull String tag) {
+        final StringWriter out = new StringWriter();
+        try {
+            dump(out);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        for (String line : out.toString().split("\n")) {
+            if (line.length() > 0) {
+                Log.i(tag, line);
+            }
+        }
+    }
+
+    /** Bucket b holds timings below 2^b nanoseconds and, above 0, at least 2^(b-1). */
+    private static int bucketOf(long nanos) {
+        return Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return (bucket >= BUCKETS - 1) ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    private static String micros(long nanos) {
+        return (nanos / 1000) + "." + ((nanos / 100) % 10) + "us";
+    }
+}
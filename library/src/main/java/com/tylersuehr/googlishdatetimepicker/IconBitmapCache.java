@@ -0,0 +1,185 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.ColorInt;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+import android.support.v4.content.ContextCompat;
+import android.util.LruCache;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Process-wide, bounded LRU cache of icons rasterized into bitmaps, keyed by
+ * their drawable resource, size, tint color and screen density, so that many
+ * pickers share one bitmap and draw it with a single drawBitmap instead of
+ * each inflating and drawing its own vector drawable.
+ *
+ * The cache is bounded by the bytes of its bitmaps, and is emptied when the
+ * app's UI is hidden or memory runs low. Evicted bitmaps are not recycled,
+ * since pickers keep drawing the bitmaps they already have.
+ *
+ * Icons are rasterized once per key without regard to the theme, so icons
+ * that use theme attributes should be set with
+ * {@link DateTimePickerLayout#setIcon(Drawable)} instead.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class IconBitmapCache implements ComponentCallbacks2 {
+    private static final int DEFAULT_MAX_BYTES = 512 * 1024;
+    private static IconBitmapCache sInstance;
+
+    private final LruCache<Key, Bitmap> mBitmaps;
+    /* Reused to look up bitmaps without allocating a key */
+    private final Key mProbe = new Key();
+
+
+    private IconBitmapCache(int maxBytes) {
+        mBitmaps = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Gets the shared instance used by all pickers, registering it for
+     * memory callbacks of the application the first time.
+     *
+     * @param c Any context of the application
+     * @return {@link IconBitmapCache}
+     */
+    @NonNull
+    public static synchronized IconBitmapCache getInstance(@NonNull Context c) {
+        if (sInstance == null) {
+            sInstance = new IconBitmapCache(DEFAULT_MAX_BYTES);
+            c.getApplicationContext().registerComponentCallbacks(sInstance);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Gets the bitmap of the given icon, rasterizing it only if it is not
+     * cached yet.
+     *
+     * @param c Context to inflate the icon with
+     * @param iconRes Drawable resource of the icon
+     * @param size Width and height in pixels; must be positive
+     * @param color Color to tint the icon with
+     * @return {@link Bitmap}
+     */
+    @NonNull
+    public synchronized Bitmap get(@NonNull Context c, @DrawableRes int iconRes,
+                                   int size, @ColorInt int color) {
+        final int density = c.getResources().getDisplayMetrics().densityDpi;
+        mProbe.set(iconRes, size, color, density);
+        Bitmap bitmap = mBitmaps.get(mProbe);
+        if (bitmap == null) {
+            bitmap = rasterize(c, iconRes, size, color);
+            final Key key = new Key();
+            key.set(iconRes, size, color, density);
+            mBitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Sets the max number of bytes of the cached bitmaps, evicting the least
+     * recently used ones if needed.
+     *
+     * @param maxBytes Max bytes
+     */
+    public synchronized void setMaxSize(int maxBytes) {
+        mBitmaps.resize(maxBytes);
+    }
+
+    public synchronized int getMaxSize() {
+        return mBitmaps.maxSize();
+    }
+
+    /**
+     * Gets the number of bytes of the cached bitmaps.
+     * @return Bytes
+     */
+    public synchronized int size() {
+        return mBitmaps.size();
+    }
+
+    public synchronized void clear() {
+        mBitmaps.evictAll();
+    }
+
+    @Override
+    public synchronized void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // No picker is visible, and visible ones keep their bitmaps anyways
+            mBitmaps.evictAll();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            mBitmaps.trimToSize(mBitmaps.maxSize() >> 1);
+        }
+    }
+
+    @Override
+    public synchronized void onLowMemory() {
+        mBitmaps.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // The density is part of the key
+    }
+
+    private static Bitmap rasterize(Context c, int iconRes, int size, int color) {
+        final Drawable icon = ContextCompat.getDrawable(c, iconRes).mutate();
+        icon.setBounds(0, 0, size, size);
+        icon.setColorFilter(color, PorterDuff.Mode.SRC_ATOP);
+
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        icon.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+
+    /**
+     * Nested inner-class that identifies a rasterized icon.
+     */
+    private static final class Key {
+        int mIconRes;
+        int mSize;
+        int mColor;
+        int mDensity;
+
+        void set(int iconRes, int size, int color, int density) {
+            mIconRes = iconRes;
+            mSize = size;
+            mColor = color;
+            mDensity = density;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (!(o instanceof Key)) { return false; }
+            final Key other = (Key)o;
+            return mIconRes == other.mIconRes && mSize == other.mSize
+                    && mColor == other.mColor && mDensity == other.mDensity;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mIconRes;
+            result = 31 * result + mSize;
+            result = 31 * result + mColor;
+            result = 31 * result + mDensity;
+            return result;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.tylersuehr.googlishdatetimepicker;
 
+import android.support.annotation.Nullable;
 import android.widget.TextView;
 
 /**
@@ -8,10 +9,14 @@ import android.widget.TextView;
  * Strategy to handle performing operations for invalid dates and times
  * used by the {@link DateTimePickerLayout}.
  *
+ * The given text view is null when the picker uses flat rendering, so prefer
+ * {@link DateTimePickerLayout#setDateError(CharSequence)} and
+ * {@link DateTimePickerLayout#setTimeError(CharSequence)} to show errors.
+ *
  * @author Tyler Suehr
  * @version 1.0
  */
 public interface InvalidDateTimeStrategy {
-    void onInvalidDate(DateTimePickerLayout parent, TextView view);
-    void onInvalidTime(DateTimePickerLayout parent, TextView view);
+    void onInvalidDate(DateTimePickerLayout parent, @Nullable TextView view);
+    void onInvalidTime(DateTimePickerLayout parent, @Nullable TextView view);
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.text.DateFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Process-wide cache of the localized formats used by the date and time
+ * displays, so that pickers share the best pattern of a skeleton and the
+ * {@link CompiledDateFormat} of a pattern per locale, instead of each picker
+ * resolving and compiling its own.
+ *
+ * Skeletons, like "EEEMMMdyyyy" or "hmm", only name the fields to show; the
+ * best pattern of a locale orders and punctuates them. The hour fields of a
+ * time skeleton follow the 12/24-hour setting of the system.
+ *
+ * Entries are keyed by locale, so they stay valid when the configuration
+ * changes; the cache is only emptied when memory runs low.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+final class LocalizedFormatCache implements ComponentCallbacks {
+    private static LocalizedFormatCache sInstance;
+
+    /* Best patterns, keyed by skeleton and locale */
+    private final Map<String, String> mPatterns = new HashMap<>();
+    /* Compiled formats, keyed by pattern and locale; null if not compilable */
+    private final Map<String, CompiledDateFormat> mFormats = new HashMap<>();
+
+
+    private LocalizedFormatCache() {}
+
+    /**
+     * Gets the shared instance used by all pickers, registering it for
+     * configuration callbacks of the application the first time.
+     *
+     * @param c Any context of the application
+     * @return {@link LocalizedFormatCache}
+     */
+    @NonNull
+    static synchronized LocalizedFormatCache getInstance(@NonNull Context c) {
+        if (sInstance == null) {
+            sInstance = new LocalizedFormatCache();
+            c.getApplicationContext().registerComponentCallbacks(sInstance);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Gets the locale that the given context formats with.
+     *
+     * @param c Context
+     * @return {@link Locale}
+     */
+    @NonNull
+    @SuppressWarnings("deprecation")
+    static Locale getLocale(@NonNull Context c) {
+        final Configuration config = c.getResources().getConfiguration();
+        final Locale locale = (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N)
+                ? config.getLocales().get(0) : config.locale;
+        return (locale != null) ? locale : Locale.getDefault();
+    }
+
+    /**
+     * Gets the best pattern of the given skeleton for the locale of the given
+     * context, with the hours of the system's 12/24-hour setting.
+     *
+     * @param c Context
+     * @param skeleton Skeleton of the fields to show
+     * @return {@link SimpleDateFormat} pattern
+     */
+    @NonNull
+    String getBestPattern(@NonNull Context c, @NonNull String skeleton) {
+        final boolean is24Hour = android.text.format.DateFormat.is24HourFormat(c);
+        final Locale locale = getLocale(c);
+        final String adjusted = withHourCycle(skeleton, is24Hour);
+        final String key = adjusted + '\n' + locale;
+        synchronized (this) {
+            String pattern = mPatterns.get(key);
+            if (pattern == null) {
+                pattern = resolveBestPattern(adjusted, locale, is24Hour);
+                mPatterns.put(key, pattern);
+            }
+            return pattern;
+        }
+    }
+
+    /**
+     * Gets the compiled format of the given pattern and locale, compiling it
+     * only if no picker has used it before.
+     *
+     * @param pattern {@link SimpleDateFormat} pattern
+     * @param locale Locale used for month, weekday and am/pm names
+     * @return {@link CompiledDateFormat}, or null if the pattern has to be
+     *         formatted by a {@link SimpleDateFormat}
+     */
+    @Nullable
+    synchronized CompiledDateFormat getCompiled(@NonNull String pattern, @NonNull Locale locale) {
+        final String key = pattern + '\n' + locale;
+        CompiledDateFormat format = mFormats.get(key);
+        if (format == null && !mFormats.containsKey(key)) {
+            format = compile(pattern, locale);
+            mFormats.put(key, format);
+        }
+        return format;
+    }
+
+    synchronized void clear() {
+        mPatterns.clear();
+        mFormats.clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // Entries of the old locale may be used again, so keep them
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    private static CompiledDateFormat compile(String pattern, Locale locale) {
+        // Compiled formats only write ASCII digits
+        if (DecimalFormatSymbols.getInstance(locale).getZeroDigit() != '0') {
+            return null;
+        }
+        try {
+            return CompiledDateFormat.compile(pattern, locale);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static String resolveBestPattern(String skeleton, Locale locale, boolean is24Hour) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return android.text.format.DateFormat.getBestDateTimePattern(locale, skeleton);
+        }
+
+        // Older platforms only have the default patterns of the locale
+        if (skeleton.indexOf(is24Hour ? 'H' : 'h') >= 0) {
+            return is24Hour ? "HH:mm" : "h:mm a";
+        }
+        final DateFormat format = DateFormat.getDateInstance(DateFormat.MEDIUM, locale);
+        if (!(format instanceof SimpleDateFormat)) {
+            return skeleton;
+        }
+        final String pattern = ((SimpleDateFormat)format).toPattern();
+        // The medium pattern has no weekday, so keep the one of the skeleton
+        return (skeleton.indexOf('E') >= 0 && pattern.indexOf('E') < 0)
+                ? "EEE, " + pattern : pattern;
+    }
+
+    /**
+     * Replaces the hour fields of a skeleton with those of the given hour
+     * cycle. The am/pm field is dropped, since the best pattern adds it if
+     * the locale needs it.
+     */
+    private static String withHourCycle(String skeleton, boolean is24Hour) {
+        final StringBuilder sb = new StringBuilder(skeleton.length());
+        for (int i = 0; i < skeleton.length(); i++) {
+            final char c = skeleton.charAt(i);
+            switch (c) {
+                case 'h':
+                case 'H':
+                case 'k':
+                case 'K':
+                case 'j':
+                    sb.append(is24Hour ? 'H' : 'h');
+                    break;
+                case 'a':
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+}
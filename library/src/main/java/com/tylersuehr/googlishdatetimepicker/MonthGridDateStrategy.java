@@ -0,0 +1,78 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.DatePickerDialog;
+import android.app.Dialog;
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Implementation of {@link DateDialogCreateStrategy} that lets the user
+ * choose a date on a {@link MonthGridView} in a plain dialog, which is much
+ * cheaper to open and page through than a {@link DatePickerDialog}.
+ *
+ * The dialog shows the month of the chosen date of the picker, or of today,
+ * and the date is chosen as soon as a day is tapped. The dialog and its
+ * grid are created once per context and reused every time after.
+ *
+ * Usage:
+ * <pre>
+ *     picker.setDateDialogCreateStrategy(new MonthGridDateStrategy(picker));
+ * </pre>
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class MonthGridDateStrategy implements DateDialogCreateStrategy,
+        MonthGridView.OnDaySelectedListener {
+    private final DateTimePickerLayout mPicker;
+    private final PickerDialogHost<MonthGridView> mHost = new PickerDialogHost<MonthGridView>() {
+        @Override
+        MonthGridView onCreateView(Context c) {
+            final MonthGridView grid = new MonthGridView(c);
+            grid.setOnDaySelectedListener(MonthGridDateStrategy.this);
+            return grid;
+        }
+    };
+
+    private DatePickerDialog.OnDateSetListener mListener;
+
+
+    public MonthGridDateStrategy(@NonNull DateTimePickerLayout picker) {
+        mPicker = picker;
+    }
+
+    @Override
+    public Dialog createDialog(Context c, DatePickerDialog.OnDateSetListener listener) {
+        final PickerMetrics metrics = DateTimePickerLayout.getMetrics();
+        final long start = (metrics != null) ? System.nanoTime() : 0L;
+        final MonthGridView grid = mHost.obtainView(c);
+        mListener = listener;
+
+        final String zoneId = mPicker.getTimeZoneId();
+        final DateTimeValue today = DateTimeValue.of(
+                mPicker.getDateTimeClock().currentTimeMillis(), zoneId);
+        grid.setToday(today.getYear(), today.getMonth(), today.getDayOfMonth());
+        final DateTimeValue chosen = mPicker.getChosenValue();
+        if (chosen != null && (mPicker.getChosenFlags() & DateTimePickerLayout.CHOSEN_DATE) != 0) {
+            grid.setSelectedDate(chosen.getYear(), chosen.getMonth(), chosen.getDayOfMonth());
+        } else {
+            grid.clearSelectedDate();
+            grid.setMonth(today.getYear(), today.getMonth());
+        }
+        if (metrics != null) {
+            metrics.onEvent(PickerMetrics.EVENT_DIALOG_CREATE, System.nanoTime() - start);
+        }
+        return mHost.getDialog();
+    }
+
+    @Override
+    public void onDaySelected(MonthGridView view, int year, int month, int dayOfMonth) {
+        mHost.dismiss();
+        if (mListener != null) {
+            // There is no framework date picker to pass along
+            mListener.onDateSet(null, year, month, dayOfMonth);
+        }
+    }
+}
@@ -0,0 +1,598 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Bundle;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.util.AttributeSet;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import java.text.DateFormat;
+import java.text.DateFormatSymbols;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * A month of days drawn as a grid by a single view, like the calendar of
+ * the Google Calendar app, to choose a date without inflating the framework
+ * {@link android.widget.DatePicker}.
+ *
+ * The header shows the month with arrows to page between months, followed
+ * by a row of weekdays and six rows of days. All of it is drawn in one
+ * {@link #onDraw(Canvas)}, and touches are mapped to days arithmetically.
+ * The layouts of months come from the shared {@link MonthLayoutEngine},
+ * which computes the months around the shown one in the background, so
+ * paging by tapping the arrows or swiping the days only looks them up. The
+ * months around the shown one are looked up once per drag, and all the text
+ * drawn is created up front, so drawing does not allocate or lock.
+ *
+ * The arrows and days are exposed to accessibility services as virtual
+ * views, which can also be moved between with a D-pad or keyboard and
+ * clicked with its center or enter key; page up and page down page months.
+ *
+ * This can be used inline in a layout, or in a dialog by
+ * {@link MonthGridDateStrategy}.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public class MonthGridView extends View {
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int WEEKS = 6;
+    /* Rows of the header, the weekdays and the weeks */
+    private static final int ROWS = WEEKS + 2;
+    private static final long NO_DAY = Long.MIN_VALUE;
+
+    /* Day numbers, weekday and month names, created once */
+    private static final String[] sDayNumbers = dayNumbers();
+    private final String[] mWeekdays;
+    private final String[] mMonths;
+    private final Locale mLocale;
+    private final int mFirstDayOfWeek;
+    private final MonthAccessibilityHelper mAccessibilityHelper;
+    private final MonthLayoutEngine mEngine = MonthLayoutEngine.getInstance();
+
+    private final Paint mDayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mSelectionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final int mTextColor;
+    private final int mCellSize;
+    private final int mTouchSlop;
+
+    /* Shown month, its layout, and those of the months around it once dragged */
+    private int mYear;
+    private int mMonth;
+    private int[] mLayout;
+    private int[] mPreviousLayout;
+    private int[] mNextLayout;
+    /* Digits of the shown year, drawn without building a string */
+    private final char[] mYearChars = new char[11];
+    private int mYearLength;
+
+    private long mSelectedDay = NO_DAY;
+    private long mToday = NO_DAY;
+    private OnDaySelectedListener mListener;
+
+    /* Size of a cell, set when the size of this view changes */
+    private float mCellWidth;
+    private float mCellHeight;
+
+    /* State of the touch being handled */
+    private float mDownX;
+    private float mDownY;
+    private float mDragOffset;
+    private boolean mDragging;
+
+
+    public MonthGridView(Context context) {
+        this(context, null);
+    }
+
+    public MonthGridView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public MonthGridView(Context c, AttributeSet attrs, int defStyleAttr) {
+        super(c, attrs, defStyleAttr);
+        final float density = getResources().getDisplayMetrics().density;
+        final float scaledDensity = getResources().getDisplayMetrics().scaledDensity;
+        mCellSize = (int)(44f * density);
+        mTouchSlop = ViewConfiguration.get(c).getScaledTouchSlop();
+
+        mLocale = LocalizedFormatCache.getLocale(c);
+        mWeekdays = DateFormatSymbols.getInstance(mLocale).getShortWeekdays();
+        mMonths = standaloneMonths();
+        mFirstDayOfWeek = Calendar.getInstance(mLocale).getFirstDayOfWeek();
+
+        final TypedArray a = c.obtainStyledAttributes(new int[] {
+                android.R.attr.textColorPrimary, R.attr.colorAccent });
+        mTextColor = a.getColor(0, Color.BLACK);
+        final int accentColor = a.getColor(1, 0xFF3F51B5);
+        a.recycle();
+
+        mDayPaint.setTextAlign(Paint.Align.CENTER);
+        mDayPaint.setTextSize(14f * scaledDensity);
+        mDayPaint.setColor(mTextColor);
+        mLabelPaint.setTextAlign(Paint.Align.CENTER);
+        mLabelPaint.setTextSize(12f * scaledDensity);
+        mLabelPaint.setColor(mTextColor);
+        mSelectionPaint.setColor(accentColor);
+        mAccessibilityHelper = new MonthAccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+        setMonth(1970, Calendar.JANUARY);
+        setClickable(true);
+        setFocusable(true);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = resolveSize(DAYS_PER_WEEK * mCellSize
+                + getPaddingLeft() + getPaddingRight(), widthMeasureSpec);
+        final int height = resolveSize(ROWS * mCellSize
+                + getPaddingTop() + getPaddingBottom(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mCellWidth = (float)(w - getPaddingLeft() - getPaddingRight()) / DAYS_PER_WEEK;
+        mCellHeight = (float)(h - getPaddingTop() - getPaddingBottom()) / ROWS;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        final float left = getPaddingLeft();
+        final float top = getPaddingTop();
+        drawHeader(canvas, left, top);
+
+        // Weekdays, starting at the first day of the week of the locale
+        final float weekdayY = top + mCellHeight * 1.5f - centerOffset(mLabelPaint);
+        for (int col = 0; col < DAYS_PER_WEEK; col++) {
+            final int weekday = (mFirstDayOfWeek - 1 + col) % DAYS_PER_WEEK + 1;
+            canvas.drawText(mWeekdays[weekday], left + (col + 0.5f) * mCellWidth,
+                    weekdayY, mLabelPaint);
+        }
+
+        // The shown month, and the month swiped in while dragging
+        final int width = getWidth();
+        canvas.save();
+        canvas.clipRect(0, top + 2 * mCellHeight, width, getHeight());
+        drawDays(canvas, mLayout, mDragOffset);
+        if (mDragOffset > 0 && mPreviousLayout != null) {
+            drawDays(canvas, mPreviousLayout, mDragOffset - width);
+        } else if (mDragOffset < 0 && mNextLayout != null) {
+            drawDays(canvas, mNextLayout, mDragOffset + width);
+        }
+        canvas.restore();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled()) {
+            return false;
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = event.getX();
+                mDownY = event.getY();
+                mDragging = false;
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                final float dx = event.getX() - mDownX;
+                if (!mDragging && Math.abs(dx) > mTouchSlop
+                        && mDownY >= getPaddingTop() + 2 * mCellHeight) {
+                    mDragging = true;
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                    loadAdjacentLayouts();
+                }
+                if (mDragging) {
+                    mDragOffset = dx;
+                    invalidate();
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (mDragging) {
+                    // Page if swiped far enough, else snap back
+                    if (Math.abs(mDragOffset) > getWidth() / 4f) {
+                        pageBy(mDragOffset < 0 ? 1 : -1);
+                    }
+                    endDrag();
+                } else {
+                    performClick();
+                    onTap(event.getX(), event.getY());
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                return true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        // Taps are handled by the cell they hit, but still count as clicks
+        return super.performClick();
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibilityHelper.dispatchHoverEvent(event)
+                || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mAccessibilityHelper.dispatchKeyEvent(event)
+                || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (keyCode == KeyEvent.KEYCODE_PAGE_UP || keyCode == KeyEvent.KEYCODE_PAGE_DOWN) {
+            pageBy(keyCode == KeyEvent.KEYCODE_PAGE_UP ? -1 : 1);
+            return true;
+        }
+        return super.onKeyDown(keyCode, event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        mAccessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /**
+     * Shows the given month.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     */
+    public void setMonth(int year, int month) {
+        mYear = year;
+        mMonth = month;
+        mLayout = mEngine.getMonth(year, month, mFirstDayOfWeek);
+        mPreviousLayout = null;
+        mNextLayout = null;
+        mYearLength = formatYear(year, mYearChars);
+        mAccessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    public int getYear() {
+        return mYear;
+    }
+
+    public int getMonth() {
+        return mMonth;
+    }
+
+    /**
+     * Shows the next or previous months.
+     *
+     * @param months Months to page by; negative to page back
+     */
+    public void pageBy(int months) {
+        final long index = mYear * 12L + mMonth + months;
+        setMonth((int)EpochMath.floorDiv(index, 12), (int)EpochMath.floorMod(index, 12));
+    }
+
+    /**
+     * Sets the selected date, and shows its month.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     * @param dayOfMonth One-based day of month
+     */
+    public void setSelectedDate(int year, int month, int dayOfMonth) {
+        mSelectedDay = EpochMath.daysFromCivil(year, month, dayOfMonth);
+        setMonth(year, month);
+    }
+
+    public void clearSelectedDate() {
+        mSelectedDay = NO_DAY;
+        invalidate();
+    }
+
+    /**
+     * Sets the date marked as today.
+     *
+     * @param year Full year
+     * @param month Zero-based month
+     * @param dayOfMonth One-based day of month
+     */
+    public void setToday(int year, int month, int dayOfMonth) {
+        mToday = EpochMath.daysFromCivil(year, month, dayOfMonth);
+        invalidate();
+    }
+
+    public void setOnDaySelectedListener(@Nullable OnDaySelectedListener listener) {
+        mListener = listener;
+    }
+
+    @ColorInt
+    public int getSelectionColor() {
+        return mSelectionPaint.getColor();
+    }
+
+    public void setSelectionColor(@ColorInt int color) {
+        mSelectionPaint.setColor(color);
+        invalidate();
+    }
+
+    private void drawHeader(Canvas canvas, float left, float top) {
+        final float y = top + mCellHeight * 0.5f - centerOffset(mDayPaint);
+        canvas.drawText("‹", left + 0.5f * mCellWidth, y, mDayPaint);
+        canvas.drawText("›", left + 6.5f * mCellWidth, y, mDayPaint);
+
+        // Month and year, centered together
+        final String month = mMonths[mMonth];
+        final float monthWidth = mDayPaint.measureText(month);
+        final float spaceWidth = mDayPaint.measureText(" ");
+        final float yearWidth = mDayPaint.measureText(mYearChars, 0, mYearLength);
+        float x = left + (DAYS_PER_WEEK * mCellWidth - monthWidth - spaceWidth - yearWidth) / 2f;
+        mDayPaint.setTextAlign(Paint.Align.LEFT);
+        canvas.drawText(month, x, y, mDayPaint);
+        x += monthWidth + spaceWidth;
+        canvas.drawText(mYearChars, 0, mYearLength, x, y, mDayPaint);
+        mDayPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    private void drawDays(Canvas canvas, int[] layout, float offsetX) {
+        final int leading = layout[MonthLayoutEngine.LEADING_DAYS];
+        final int length = layout[MonthLayoutEngine.MONTH_LENGTH];
+        final long firstDay = layout[MonthLayoutEngine.FIRST_EPOCH_DAY];
+        final float left = getPaddingLeft() + offsetX;
+        final float top = getPaddingTop() + 2 * mCellHeight;
+        final float textOffset = centerOffset(mDayPaint);
+        final float radius = Math.min(mCellWidth, mCellHeight) * 0.45f;
+
+        for (int cell = leading; cell < leading + length; cell++) {
+            final float cx = left + (cell % DAYS_PER_WEEK + 0.5f) * mCellWidth;
+            final float cy = top + (cell / DAYS_PER_WEEK + 0.5f) * mCellHeight;
+            final long epochDay = firstDay + cell;
+            if (epochDay == mSelectedDay) {
+                canvas.drawCircle(cx, cy, radius, mSelectionPaint);
+                mDayPaint.setColor(Color.WHITE);
+            } else if (epochDay == mToday) {
+                mDayPaint.setColor(mSelectionPaint.getColor());
+            }
+            canvas.drawText(sDayNumbers[EpochMath.dayOf(layout[cell])],
+                    cx, cy - textOffset, mDayPaint);
+            mDayPaint.setColor(mTextColor);
+        }
+    }
+
+    private void onTap(float x, float y) {
+        final int col = (int)((x - getPaddingLeft()) / mCellWidth);
+        final int row = (int)((y - getPaddingTop()) / mCellHeight);
+        if (col < 0 || col >= DAYS_PER_WEEK || row < 0 || row >= ROWS) {
+            return;
+        }
+        if (row == 0) {
+            // Arrows of the header
+            if (col == 0 || col == DAYS_PER_WEEK - 1) {
+                playSoundEffect(SoundEffectConstants.CLICK);
+                pageBy(col == 0 ? -1 : 1);
+            }
+            return;
+        }
+
+        final int day = (row - 2) * DAYS_PER_WEEK + col - mLayout[MonthLayoutEngine.LEADING_DAYS] + 1;
+        if (row < 2 || day < 1 || day > mLayout[MonthLayoutEngine.MONTH_LENGTH]) {
+            return;
+        }
+        playSoundEffect(SoundEffectConstants.CLICK);
+        selectDay(day);
+    }
+
+    /**
+     * Selects the given day of the shown month, and reports it.
+     */
+    private void selectDay(int day) {
+        mSelectedDay = mLayout[MonthLayoutEngine.FIRST_EPOCH_DAY]
+                + mLayout[MonthLayoutEngine.LEADING_DAYS] + day - 1;
+        invalidate();
+        mAccessibilityHelper.invalidateRoot();
+        if (mListener != null) {
+            mListener.onDaySelected(this, mYear, mMonth, day);
+        }
+    }
+
+    /**
+     * Looks up the layouts of the months around the shown one, which were
+     * prefetched when it was shown, to draw them while dragging.
+     */
+    private void loadAdjacentLayouts() {
+        if (mPreviousLayout == null) {
+            mPreviousLayout = mEngine.getMonth((mMonth == Calendar.JANUARY) ? mYear - 1 : mYear,
+                    (mMonth + 11) % 12, mFirstDayOfWeek);
+            mNextLayout = mEngine.getMonth((mMonth == Calendar.DECEMBER) ? mYear + 1 : mYear,
+                    (mMonth + 1) % 12, mFirstDayOfWeek);
+        }
+    }
+
+    private void endDrag() {
+        mDragging = false;
+        mDragOffset = 0;
+        invalidate();
+    }
+
+    /**
+     * Gets how far below the baseline the middle of the text is, to center
+     * text vertically on a point.
+     */
+    private static float centerOffset(Paint paint) {
+        return (paint.descent() + paint.ascent()) / 2f;
+    }
+
+    /**
+     * Writes the digits of a year into a buffer, returning their count.
+     */
+    private static int formatYear(int year, char[] buffer) {
+        long value = Math.abs((long)year);
+        int length = 0;
+        do {
+            buffer[length++] = (char)('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        if (year < 0) {
+            buffer[length++] = '-';
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            final char tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+        return length;
+    }
+
+    /**
+     * Gets the names of the months as used on their own, like in a header,
+     * which some locales decline differently than in a date.
+     */
+    private static String[] standaloneMonths() {
+        final String[] months = new String[12];
+        final Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(2000, Calendar.JANUARY, 1);
+        for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+            c.set(Calendar.MONTH, month);
+            months[month] = android.text.format.DateFormat.format("LLLL", c).toString();
+        }
+        return months;
+    }
+
+    private static String[] dayNumbers() {
+        final String[] numbers = new String[32];
+        for (int i = 1; i < numbers.length; i++) {
+            numbers[i] = Integer.toString(i);
+        }
+        return numbers;
+    }
+
+
+    /**
+     * Nested inner-class implementation of {@link ExploreByTouchHelper} that
+     * exposes the arrows of the header and the days of the shown month as
+     * virtual views, so that they can be explored, focused and clicked.
+     */
+    private final class MonthAccessibilityHelper extends ExploreByTouchHelper {
+        static final int PREVIOUS_ID = 0;
+        static final int NEXT_ID = 1;
+        /* Days are identified by this plus their day of month */
+        static final int DAY_ID_BASE = 1;
+
+        private final Rect mBounds = new Rect();
+        private DateFormat mDayFormat;
+
+
+        MonthAccessibilityHelper() {
+            super(MonthGridView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            final int col = (int)((x - getPaddingLeft()) / mCellWidth);
+            final int row = (int)((y - getPaddingTop()) / mCellHeight);
+            if (x < getPaddingLeft() || col >= DAYS_PER_WEEK || y < getPaddingTop() || row >= ROWS) {
+                return INVALID_ID;
+            }
+            if (row == 0) {
+                return (col == 0) ? PREVIOUS_ID : (col == DAYS_PER_WEEK - 1) ? NEXT_ID : INVALID_ID;
+            }
+            final int day = (row - 2) * DAYS_PER_WEEK + col - mLayout[MonthLayoutEngine.LEADING_DAYS] + 1;
+            return (row >= 2 && day >= 1 && day <= mLayout[MonthLayoutEngine.MONTH_LENGTH])
+                    ? DAY_ID_BASE + day : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            virtualViewIds.add(PREVIOUS_ID);
+            virtualViewIds.add(NEXT_ID);
+            final int length = mLayout[MonthLayoutEngine.MONTH_LENGTH];
+            for (int day = 1; day <= length; day++) {
+                virtualViewIds.add(DAY_ID_BASE + day);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId,
+                                                    @NonNull AccessibilityNodeInfoCompat node) {
+            if (virtualViewId == PREVIOUS_ID || virtualViewId == NEXT_ID) {
+                node.setContentDescription(getResources().getString((virtualViewId == PREVIOUS_ID)
+                        ? R.string.dtp_previous_month : R.string.dtp_next_month));
+                setCellBounds(0, (virtualViewId == PREVIOUS_ID) ? 0 : DAYS_PER_WEEK - 1);
+            } else {
+                final int cell = mLayout[MonthLayoutEngine.LEADING_DAYS] + virtualViewId - DAY_ID_BASE - 1;
+                final long epochDay = mLayout[MonthLayoutEngine.FIRST_EPOCH_DAY] + cell;
+                node.setContentDescription(getDayFormat().format(epochDay * EpochMath.MILLIS_PER_DAY));
+                node.setSelected(epochDay == mSelectedDay);
+                setCellBounds(cell / DAYS_PER_WEEK + 2, cell % DAYS_PER_WEEK);
+            }
+            node.setBoundsInParent(mBounds);
+            node.setFocusable(true);
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action,
+                                                        @Nullable Bundle arguments) {
+            if (action != AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                return false;
+            }
+            if (virtualViewId == PREVIOUS_ID || virtualViewId == NEXT_ID) {
+                pageBy((virtualViewId == PREVIOUS_ID) ? -1 : 1);
+            } else {
+                selectDay(virtualViewId - DAY_ID_BASE);
+            }
+            return true;
+        }
+
+        private void setCellBounds(int row, int col) {
+            final int left = getPaddingLeft() + (int)(col * mCellWidth);
+            final int top = getPaddingTop() + (int)(row * mCellHeight);
+            mBounds.set(left, top, left + (int)mCellWidth, top + (int)mCellHeight);
+        }
+
+        /**
+         * Gets the format of the full date of a day, created only once an
+         * accessibility service asks for it. Days are formatted as the UTC
+         * midnights of their epoch days.
+         */
+        private DateFormat getDayFormat() {
+            if (mDayFormat == null) {
+                mDayFormat = DateFormat.getDateInstance(DateFormat.FULL, mLocale);
+                mDayFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            }
+            return mDayFormat;
+        }
+    }
+
+
+    /**
+     * Listener of days selected by the user on a {@link MonthGridView}.
+     */
+    public interface OnDaySelectedListener {
+        void onDaySelected(MonthGridView view, int year, int month, int dayOfMonth);
+    }
+}
@@ -0,0 +1,21 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Callback for changes of the chosen datetime of a {@link DateTimePickerLayout},
+ * whether chosen by the user or set in code.
+ *
+ * Changes are coalesced per frame, so choosing a date and then a time in
+ * quick succession, or binding many values at once, is reported once with
+ * the latest value.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public interface OnDateTimeChangeListener {
+    void onDateTimeChanged(@NonNull DateTimePickerLayout picker, @Nullable DateTimeValue value);
+}
@@ -0,0 +1,211 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.Activity;
+import android.app.DatePickerDialog;
+import android.app.Dialog;
+import android.app.TimePickerDialog;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.DialogInterface;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.format.DateFormat;
+import android.view.View;
+import android.widget.DatePicker;
+import android.widget.TimePicker;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Keeps one date picker dialog and one time picker dialog per activity, so
+ * that every {@link DateTimePickerLayout} in the activity reuses them instead
+ * of inflating a new dialog on every tap.
+ *
+ * The dialogs are created with this cache as their listener, which forwards
+ * each chosen date or time to the listener of the picker that showed the
+ * dialog, and forgets that listener once the dialog is dismissed, telling
+ * the picker so that it no longer holds on to the dialog. The cache
+ * is stored on the decor view of the activity, so it lives and dies with it.
+ * Since they are shared, the dialogs use the theme of the activity.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class PickerDialogCache implements
+        DatePickerDialog.OnDateSetListener,
+        TimePickerDialog.OnTimeSetListener,
+        DialogInterface.OnDismissListener {
+    private final Context mContext;
+
+    private DatePickerDialog mDateDialog;
+    private TimePickerDialog mTimeDialog;
+    private boolean mTimeDialogIs24Hour;
+
+    /* Listeners of the picker that is currently showing a dialog */
+    private DatePickerDialog.OnDateSetListener mDateTarget;
+    private TimePickerDialog.OnTimeSetListener mTimeTarget;
+
+
+    private PickerDialogCache(Context c) {
+        mContext = c;
+    }
+
+    /**
+     * Gets the dialog cache of the activity of the given context.
+     *
+     * @param c Context of an activity
+     * @return {@link PickerDialogCache}, or null if the context has no activity
+     */
+    @Nullable
+    public static PickerDialogCache from(@NonNull Context c) {
+        final Activity activity = findActivity(c);
+        if (activity == null) {
+            return null;
+        }
+
+        final View decor = activity.getWindow().getDecorView();
+        PickerDialogCache cache = (PickerDialogCache)decor.getTag(R.id.dtp_dialog_cache);
+        if (cache == null) {
+            cache = new PickerDialogCache(activity);
+            decor.setTag(R.id.dtp_dialog_cache, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Checks if the given dialog is shown for the given listener, and not
+     * for another picker it is shared with.
+     *
+     * @param c Context of an activity
+     * @param dialog Dialog shown by the listener
+     * @param listener Listener the dialog was shown for
+     * @return True if the dialog is not shared, or is shown for the listener
+     */
+    static boolean isShownFor(@NonNull Context c, @NonNull Dialog dialog,
+                              @NonNull Object listener) {
+        final Activity activity = findActivity(c);
+        final PickerDialogCache cache = (activity != null)
+                ? (PickerDialogCache)activity.getWindow().getDecorView()
+                        .getTag(R.id.dtp_dialog_cache)
+                : null;
+        if (cache == null) {
+            return true;
+        }
+        if (dialog == cache.mDateDialog) {
+            return cache.mDateTarget == listener;
+        }
+        if (dialog == cache.mTimeDialog) {
+            return cache.mTimeTarget == listener;
+        }
+        return true;
+    }
+
+    /**
+     * Creates both dialogs ahead of time, if not already created, so that
+     * the first tap does not have to. Meant to be called while idle.
+     */
+    public void prewarm() {
+        if (mDateDialog == null) {
+            mDateDialog = new DatePickerDialog(mContext, this, 1970, 0, 1);
+            mDateDialog.setOnDismissListener(this);
+        }
+        if (mTimeDialog == null) {
+            // Like the default strategy, so that the first tap reuses it
+            createTimeDialog(DateFormat.is24HourFormat(mContext));
+        }
+    }
+
+    /**
+     * Gets the date picker dialog, updated to the given date, that reports
+     * the chosen date to the given listener.
+     *
+     * @param listener Listener of the chosen date
+     * @param year Initial year
+     * @param month Initial month (0-11)
+     * @param dayOfMonth Initial day of month
+     * @return {@link DatePickerDialog}
+     */
+    @NonNull
+    public DatePickerDialog obtainDatePicker(@NonNull DatePickerDialog.OnDateSetListener listener,
+                                             int year, int month, int dayOfMonth) {
+        if (mDateDialog == null) {
+            mDateDialog = new DatePickerDialog(mContext, this, year, month, dayOfMonth);
+            mDateDialog.setOnDismissListener(this);
+        } else {
+            mDateDialog.updateDate(year, month, dayOfMonth);
+        }
+        mDateTarget = listener;
+        return mDateDialog;
+    }
+
+    /**
+     * Gets the time picker dialog, updated to the given time, that reports
+     * the chosen time to the given listener.
+     *
+     * @param listener Listener of the chosen time
+     * @param hourOfDay Initial hour of day
+     * @param minute Initial minute
+     * @param is24HourView True if should use a 24 hour clock
+     * @return {@link TimePickerDialog}
+     */
+    @NonNull
+    public TimePickerDialog obtainTimePicker(@NonNull TimePickerDialog.OnTimeSetListener listener,
+                                             int hourOfDay, int minute, boolean is24HourView) {
+        if (mTimeDialog == null || mTimeDialogIs24Hour != is24HourView) {
+            // The clock style is fixed once a time dialog is created
+            createTimeDialog(is24HourView);
+        }
+        mTimeDialog.updateTime(hourOfDay, minute);
+        mTimeTarget = listener;
+        return mTimeDialog;
+    }
+
+    @Override
+    public void onDateSet(DatePicker view, int year, int month, int dayOfMonth) {
+        if (mDateTarget != null) {
+            mDateTarget.onDateSet(view, year, month, dayOfMonth);
+        }
+    }
+
+    @Override
+    public void onTimeSet(TimePicker view, int hourOfDay, int minute) {
+        if (mTimeTarget != null) {
+            mTimeTarget.onTimeSet(view, hourOfDay, minute);
+        }
+    }
+
+    @Override
+    public void onDismiss(DialogInterface dialog) {
+        // Dialogs report their result before they are dismissed
+        final Object target;
+        if (dialog == mDateDialog) {
+            target = mDateTarget;
+            mDateTarget = null;
+        } else if (dialog == mTimeDialog) {
+            target = mTimeTarget;
+            mTimeTarget = null;
+        } else {
+            return;
+        }
+        if (target instanceof DateTimePickerLayout) {
+            ((DateTimePickerLayout)target).onDialogDismissed((Dialog)dialog);
+        }
+    }
+
+    private void createTimeDialog(boolean is24HourView) {
+        mTimeDialog = new TimePickerDialog(mContext, this, 0, 0, is24HourView);
+        mTimeDialog.setOnDismissListener(this);
+        mTimeDialogIs24Hour = is24HourView;
+    }
+
+    @Nullable
+    private static Activity findActivity(Context c) {
+        while (c instanceof ContextWrapper) {
+            if (c instanceof Activity) {
+                return (Activity)c;
+            }
+            c = ((ContextWrapper)c).getBaseContext();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.Dialog;
+import android.content.Context;
+import android.view.View;
+import android.view.Window;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Hosts a single view in a plain dialog without a title, for strategies
+ * that show their own view instead of a framework picker dialog.
+ *
+ * The dialog and its view are created once per context and reused every
+ * time after, so only the state of the view has to be set each time the
+ * dialog is shown.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+abstract class PickerDialogHost<V extends View> {
+    private Context mContext;
+    private Dialog mDialog;
+    private V mView;
+
+
+    /**
+     * Creates the view hosted by the dialog of the given context.
+     *
+     * @param c Context of the dialog
+     * @return View to host
+     */
+    abstract V onCreateView(Context c);
+
+    /**
+     * Gets the view of the dialog of the given context, creating both the
+     * first time or when the context changed.
+     *
+     * @param c Context of the dialog
+     * @return Hosted view
+     */
+    V obtainView(Context c) {
+        if (mDialog == null || mContext != c) {
+            mContext = c;
+            mView = onCreateView(c);
+            mDialog = new Dialog(c);
+            mDialog.requestWindowFeature(Window.FEATURE_NO_TITLE);
+            mDialog.setContentView(mView);
+        }
+        return mView;
+    }
+
+    /**
+     * Gets the dialog of the last context a view was obtained for.
+     * @return {@link Dialog}, or null if no view was obtained yet
+     */
+    Dialog getDialog() {
+        return mDialog;
+    }
+
+    void dismiss() {
+        if (mDialog != null) {
+            mDialog.dismiss();
+        }
+    }
+}
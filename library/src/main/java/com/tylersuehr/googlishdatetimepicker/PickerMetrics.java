@@ -0,0 +1,46 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Sink of the timings of {@link DateTimePickerLayout}, to find where time
+ * goes in the picker and compare builds in the field. Each event is
+ * reported with how long it took, so counting the events of a kind also
+ * counts, i.e., measure passes.
+ *
+ * No sink is set by default, in which case the picker does not even read
+ * the clock. Set one with {@link DateTimePickerLayout#setMetrics(PickerMetrics)};
+ * {@link HistogramPickerMetrics} keeps histograms of the timings.
+ *
+ * Events are reported on the main thread, except for formatting done on a
+ * text executor, so implementations must be thread-safe.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public interface PickerMetrics {
+    /** Creating a picker, including resolving its style. */
+    int EVENT_INFLATE = 0;
+    /** One call of onMeasure. */
+    int EVENT_MEASURE = 1;
+    /** One call of onLayout. */
+    int EVENT_LAYOUT = 2;
+    /** Formatting the text of a display. */
+    int EVENT_FORMAT = 3;
+    /** One call of the validator. */
+    int EVENT_VALIDATE = 4;
+    /** Creating, or obtaining a cached, dialog in a default strategy. */
+    int EVENT_DIALOG_CREATE = 5;
+    /** From a tap on a display until its dialog is shown. */
+    int EVENT_DIALOG_SHOW = 6;
+    /** Number of events. */
+    int EVENT_COUNT = 7;
+
+    /**
+     * Called when an event is done.
+     *
+     * @param event One of the EVENT constants
+     * @param nanos How long it took, in nanoseconds
+     */
+    void onEvent(int event, long nanos);
+}
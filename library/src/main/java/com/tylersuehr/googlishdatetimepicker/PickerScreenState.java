@@ -0,0 +1,89 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Arrays;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Saves the state of every {@link DateTimePickerLayout} of a screen as one
+ * long array, keyed by view id, to put into the saved instance state of an
+ * activity or fragment with {@link Bundle#putLongArray(String, long[])}.
+ *
+ * Each picker takes two longs, 16 bytes: its view id packed with its state
+ * flags, and its chosen epoch minute. Unlike saving a {@link java.util.Calendar}
+ * per picker, this stays small on large forms, so it does not risk exceeding
+ * the binder transaction limit. Pickers saved this way can have saving turned
+ * off with {@link View#setSaveEnabled(boolean)}, so they are not also saved
+ * by the framework. Pickers without an id are skipped.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public final class PickerScreenState {
+    /* Packed state being saved, of which mLength longs are used */
+    private long[] mState = new long[16];
+    private int mLength;
+
+
+    private PickerScreenState() {}
+
+    /**
+     * Saves the state of all pickers within the given view.
+     *
+     * @param root Root of the screen
+     * @return Packed state
+     */
+    @NonNull
+    public static long[] save(@NonNull View root) {
+        final PickerScreenState saver = new PickerScreenState();
+        saver.collect(root);
+        return Arrays.copyOf(saver.mState, saver.mLength);
+    }
+
+    /**
+     * Restores the state of the pickers within the given view that were
+     * saved by {@link #save(View)}. Saved pickers that no longer exist are
+     * ignored.
+     *
+     * @param root Root of the screen
+     * @param state Packed state, or null if nothing was saved
+     */
+    public static void restore(@NonNull View root, @Nullable long[] state) {
+        if (state == null) { return; }
+        for (int i = 0; i + 1 < state.length; i += 2) {
+            final int id = (int)(state[i] >>> 32);
+            final View view = root.findViewById(id);
+            if (view instanceof DateTimePickerLayout) {
+                ((DateTimePickerLayout)view).restoreState(state[i + 1], (int)state[i]);
+            }
+        }
+    }
+
+    /**
+     * Appends the state of the pickers within the given view.
+     */
+    private void collect(View view) {
+        if (view instanceof DateTimePickerLayout) {
+            if (view.getId() != View.NO_ID) {
+                final DateTimePickerLayout picker = (DateTimePickerLayout)view;
+                if (mLength + 2 > mState.length) {
+                    mState = Arrays.copyOf(mState, mState.length << 1);
+                }
+                mState[mLength++] = ((long)view.getId() << 32)
+                        | (picker.getStateFlags() & 0xFFFFFFFFL);
+                mState[mLength++] = picker.getChosenEpochMinute();
+            }
+        } else if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup)view;
+            for (int i = 0, count = group.getChildCount(); i < count; i++) {
+                collect(group.getChildAt(i));
+            }
+        }
+    }
+}
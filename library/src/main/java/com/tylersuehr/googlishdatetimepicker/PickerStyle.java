@@ -0,0 +1,194 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.content.ContextCompat;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * The resolved values of the {@link DateTimePickerLayout} styleable, cached
+ * per theme and per style of attributes, so that a screen inflating many
+ * pickers only resolves its theme and inflates its drawables once.
+ *
+ * Two attribute sets share an entry if they set the same picker attributes
+ * to the same values with the same style, so unrelated attributes like an
+ * id or layout params do not prevent sharing. Drawables are shared through
+ * their {@link Drawable.ConstantState}, and icons through {@link IconBitmapCache}.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+final class PickerStyle {
+    /* Cached styles per theme, weakly keyed so themes can be collected */
+    private static final Map<Resources.Theme, Map<String, PickerStyle>> sCache =
+            new WeakHashMap<>();
+    /* The picker attributes, sorted so they can be searched */
+    private static final int[] sAttrs = sortedAttrs();
+
+    final String mDateFormat;
+    final String mTimeFormat;
+    final String mDateSkeleton;
+    final String mTimeSkeleton;
+    final int mTextPadding;
+    final CharSequence mDefaultDateText;
+    final CharSequence mDefaultTimeText;
+    final CharSequence mDefaultDateErrorText;
+    final CharSequence mDefaultTimeErrorText;
+    final int mTextColor;
+    final float mTextSize;
+    final int mErrorColor;
+    final int mIconSize;
+    final int mIconColor;
+    /* Resource of the icon, or 0 if only available as a drawable */
+    final int mIconRes;
+    final boolean mAutoValidate;
+    final boolean mShowIcon;
+    final boolean mShowIconSpacing;
+    final boolean mFlatRendering;
+    final boolean mCacheDialogs;
+
+    private final Drawable.ConstantState mIcon;
+    private final Drawable.ConstantState mItemBackground;
+
+
+    private PickerStyle(Context c, AttributeSet attrs) {
+        final DisplayMetrics dm = c.getResources().getDisplayMetrics();
+        final int sixteenDp = (int)(16f * dm.density);
+
+        final TypedArray a = c.obtainStyledAttributes(attrs, R.styleable.DateTimePickerLayout);
+        mDateFormat = a.getString(R.styleable.DateTimePickerLayout_dtp_dateFormat);
+        mTimeFormat = a.getString(R.styleable.DateTimePickerLayout_dtp_timeFormat);
+        mDateSkeleton = a.getString(R.styleable.DateTimePickerLayout_dtp_dateSkeleton);
+        mTimeSkeleton = a.getString(R.styleable.DateTimePickerLayout_dtp_timeSkeleton);
+        mTextPadding = a.getDimensionPixelSize(R.styleable.DateTimePickerLayout_dtp_textMargin, sixteenDp);
+        mDefaultDateText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultDate)
+                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultDate)
+                : "Choose Date";
+        mDefaultTimeText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultTime)
+                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultTime)
+                : "Choose Time";
+        mDefaultDateErrorText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultDateError)
+                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultDateError)
+                : "Invalid Date!";
+        mDefaultTimeErrorText = a.hasValue(R.styleable.DateTimePickerLayout_dtp_defaultTimeError)
+                ? a.getText(R.styleable.DateTimePickerLayout_dtp_defaultTimeError)
+                : "Invalid Time!";
+        mTextColor = a.getColor(R.styleable.DateTimePickerLayout_android_textColor, Color.BLACK);
+        mTextSize = a.getDimension(R.styleable.DateTimePickerLayout_android_textSize, (int)(16f * dm.scaledDensity));
+        mErrorColor = a.getColor(R.styleable.DateTimePickerLayout_dtp_errorColor, 0xFFD32F2F);
+
+        mIconSize = a.getDimensionPixelSize(R.styleable.DateTimePickerLayout_dtp_iconSize, (int)(24f * dm.density));
+        mIconColor = a.getColor(R.styleable.DateTimePickerLayout_dtp_iconColor, Color.BLACK);
+        // Icons are rasterized from their resource; only inline values, like
+        // a color, have to be kept as drawables
+        int iconRes = a.getResourceId(R.styleable.DateTimePickerLayout_dtp_icon, 0);
+        Drawable icon = null;
+        if (iconRes == 0) {
+            icon = a.getDrawable(R.styleable.DateTimePickerLayout_dtp_icon);
+            if (icon == null) {
+                iconRes = R.drawable.ic_default_datetime_picker_24dp;
+            }
+        }
+        mIconRes = iconRes;
+        mIcon = (icon != null) ? icon.getConstantState() : null;
+
+        mAutoValidate = a.getBoolean(R.styleable.DateTimePickerLayout_dtp_enableAutoValidate, true);
+        mShowIcon = a.getBoolean(R.styleable.DateTimePickerLayout_dtp_showIcon, true);
+        mShowIconSpacing = a.getBoolean(R.styleable.DateTimePickerLayout_dtp_showIconSpacing, true);
+        mFlatRendering = a.getBoolean(R.styleable.DateTimePickerLayout_dtp_flatRendering, false);
+        mCacheDialogs = a.getBoolean(R.styleable.DateTimePickerLayout_dtp_cacheDialogs, false);
+        a.recycle();
+
+        // Get the 'selectable item' background from attributes
+        final TypedArray b = c.obtainStyledAttributes(new int[] { R.attr.selectableItemBackground });
+        final Drawable background = b.getDrawable(0);
+        b.recycle();
+        mItemBackground = (background != null) ? background.getConstantState() : null;
+    }
+
+    /**
+     * Gets the resolved style of a picker, resolving it only if no picker
+     * with the same theme and picker attributes has been created before.
+     *
+     * @param c Context of the picker
+     * @param attrs Attributes of the picker, if inflated
+     * @return {@link PickerStyle}
+     */
+    @NonNull
+    static PickerStyle obtain(@NonNull Context c, @Nullable AttributeSet attrs) {
+        final Resources.Theme theme = c.getTheme();
+        final String key = keyOf(c, attrs);
+        synchronized (sCache) {
+            Map<String, PickerStyle> styles = sCache.get(theme);
+            if (styles == null) {
+                styles = new HashMap<>();
+                sCache.put(theme, styles);
+            }
+            PickerStyle style = styles.get(key);
+            if (style == null) {
+                style = new PickerStyle(c, attrs);
+                styles.put(key, style);
+            }
+            return style;
+        }
+    }
+
+    /**
+     * Creates the icon as a drawable. It is mutated, since the picker applies
+     * its color filter to it and that must not leak into other pickers.
+     */
+    @NonNull
+    Drawable newIcon(Context c) {
+        return (mIcon != null)
+                ? mIcon.newDrawable(c.getResources()).mutate()
+                : ContextCompat.getDrawable(c, mIconRes).mutate();
+    }
+
+    /**
+     * Creates the 'selectable item' background of a display. This is not
+     * mutated, since the picker only changes its bounds and state.
+     */
+    @Nullable
+    Drawable newItemBackground(Resources res) {
+        return (mItemBackground != null) ? mItemBackground.newDrawable(res) : null;
+    }
+
+    /**
+     * Builds the key of the picker attributes and their raw values. The
+     * configuration is part of the key, since values like strings and
+     * dimensions resolve differently after a configuration change.
+     */
+    private static String keyOf(Context c, AttributeSet attrs) {
+        final StringBuilder sb = new StringBuilder(64);
+        sb.append(c.getResources().getConfiguration().hashCode());
+        if (attrs != null) {
+            sb.append('/').append(attrs.getStyleAttribute());
+            for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+                final int attr = attrs.getAttributeNameResource(i);
+                if (Arrays.binarySearch(sAttrs, attr) >= 0) {
+                    sb.append(';').append(attr).append('=').append(attrs.getAttributeValue(i));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int[] sortedAttrs() {
+        final int[] attrs = R.styleable.DateTimePickerLayout.clone();
+        Arrays.sort(attrs);
+        return attrs;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.Dialog;
+import android.app.TimePickerDialog;
+import android.content.Context;
+
+/**
+ * Copyright © 2017 Tyler Suehr
+ *
+ * Strategy to handle creating any dialog to choose a time, used by the
+ * {@link DateTimePickerLayout} instead of its {@link TimePickerCreateStrategy}
+ * when set.
+ *
+ * The dialog does not have to be a {@link TimePickerDialog}, like the one of
+ * {@link ClockFaceTimeStrategy}, as long as it calls the listener with the
+ * chosen time.
+ *
+ * @author Tyler Suehr
+ * @version 1.0
+ */
+public interface TimeDialogCreateStrategy {
+    Dialog createDialog(Context c, TimePickerDialog.OnTimeSetListener listener);
+}
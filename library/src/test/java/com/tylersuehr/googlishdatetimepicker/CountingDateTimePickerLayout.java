@@ -0,0 +1,42 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.content.Context;
+
+/**
+ * {@link DateTimePickerLayout} that counts its measure and layout passes and
+ * the layouts it requests, for the budget tests.
+ */
+public class CountingDateTimePickerLayout extends DateTimePickerLayout {
+    int mOnMeasureCount;
+    int mOnLayoutCount;
+    int mRequestLayoutCount;
+
+
+    public CountingDateTimePickerLayout(Context context) {
+        super(context);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        mOnMeasureCount++;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        mOnLayoutCount++;
+    }
+
+    @Override
+    public void requestLayout() {
+        super.requestLayout();
+        mRequestLayoutCount++;
+    }
+
+    void resetCounts() {
+        mOnMeasureCount = 0;
+        mOnLayoutCount = 0;
+        mRequestLayoutCount = 0;
+    }
+}
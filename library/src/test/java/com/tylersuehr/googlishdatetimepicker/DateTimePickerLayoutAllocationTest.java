@@ -0,0 +1,149 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.Activity;
+import android.view.ViewGroup;
+
+import com.google.monitoring.runtime.instrumentation.AllocationRecorder;
+import com.google.monitoring.runtime.instrumentation.Sampler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that binding does not allocate in the picker once the formatted
+ * texts are cached, by counting the allocations the picker's code makes
+ * during repeated binds. An allocation is attributed to the first frame of
+ * its stack outside of the JDK and the instrumenter: only when that frame
+ * is the picker's own code does it count, so that i.e. boxing or a string
+ * built by the picker counts against it, while what the framework or
+ * Robolectric allocate inside {@code TextView.setText()} or a frame
+ * callback does not.
+ *
+ * Needs the allocation instrumenter agent, which the build passes to the
+ * test JVM.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class DateTimePickerLayoutAllocationTest {
+    private static final String PACKAGE = "com.tylersuehr.googlishdatetimepicker.";
+    private static final int BINDS = 1000;
+    private static final int FLAGS = DateTimePickerLayout.CHOSEN_DATE | DateTimePickerLayout.CHOSEN_TIME;
+    private static final long FIRST_MILLIS = 3786912000000L;
+    private static final long SECOND_MILLIS = FIRST_MILLIS + EpochMath.MILLIS_PER_DAY
+            + 90 * EpochMath.MILLIS_PER_MINUTE;
+
+    private DateTimePickerLayout mPicker;
+    private PickerAllocationSampler mSampler;
+
+
+    @Before
+    public void setUp() {
+        final Activity activity = Robolectric.setupActivity(Activity.class);
+        mPicker = new DateTimePickerLayout(activity);
+        mPicker.setTimeZone("UTC");
+        activity.setContentView(mPicker, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        // Warm the text cache and the zone transitions
+        mPicker.bind(FIRST_MILLIS, FLAGS);
+        mPicker.bind(SECOND_MILLIS, FLAGS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        mSampler = new PickerAllocationSampler(Thread.currentThread());
+        AllocationRecorder.addSampler(mSampler);
+    }
+
+    @After
+    public void tearDown() {
+        AllocationRecorder.removeSampler(mSampler);
+    }
+
+    @Test
+    public void bind_sameValue_doesNotAllocate() {
+        mSampler.mRecording = true;
+        for (int i = 0; i < BINDS; i++) {
+            mPicker.bind(FIRST_MILLIS, FLAGS);
+        }
+        mSampler.mRecording = false;
+        assertEquals(mSampler.toString(), 0, mSampler.mCount);
+    }
+
+    @Test
+    public void bind_cachedValues_doesNotAllocate() {
+        mSampler.mRecording = true;
+        for (int i = 0; i < BINDS; i++) {
+            mPicker.bind(((i & 1) == 0) ? FIRST_MILLIS : SECOND_MILLIS, FLAGS);
+        }
+        mSampler.mRecording = false;
+        assertEquals(mSampler.toString(), 0, mSampler.mCount);
+    }
+
+    @Test
+    public void bind_nothingChosen_doesNotAllocate() {
+        mSampler.mRecording = true;
+        for (int i = 0; i < BINDS; i++) {
+            mPicker.bind(FIRST_MILLIS, ((i & 1) == 0) ? FLAGS : 0);
+        }
+        mSampler.mRecording = false;
+        assertEquals(mSampler.toString(), 0, mSampler.mCount);
+    }
+
+
+    /**
+     * Counts the allocations made on behalf of the picker's code on one
+     * thread, remembering the first one to report it.
+     */
+    private static final class PickerAllocationSampler implements Sampler {
+        private final Thread mThread;
+        volatile boolean mRecording;
+        int mCount;
+        String mFirst;
+
+        PickerAllocationSampler(Thread thread) {
+            mThread = thread;
+        }
+
+        @Override
+        public void sampleAllocation(int count, String desc, Object newObj, long size) {
+            if (!mRecording || Thread.currentThread() != mThread) {
+                return;
+            }
+            // Attribute it to the first frame outside of the JDK and the recorder
+            for (StackTraceElement frame : new Throwable().getStackTrace()) {
+                final String className = frame.getClassName();
+                if (isJdkOrRecorder(className)) {
+                    continue;
+                }
+                if (className.startsWith(PACKAGE) && !className.endsWith("Test")) {
+                    if (mCount++ == 0) {
+                        mFirst = desc + " at " + frame;
+                    }
+                }
+                return;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return mCount + " allocations, first: " + mFirst;
+        }
+
+        private static boolean isJdkOrRecorder(String className) {
+            return className.startsWith("java.")
+                    || className.startsWith("javax.")
+                    || className.startsWith("sun.")
+                    || className.startsWith("jdk.")
+                    || className.startsWith("libcore.")
+                    || className.startsWith("com.google.monitoring.")
+                    || className.startsWith(PickerAllocationSampler.class.getName());
+        }
+    }
+}
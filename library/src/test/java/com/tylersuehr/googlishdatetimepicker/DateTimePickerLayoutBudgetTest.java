@@ -0,0 +1,216 @@
+package com.tylersuehr.googlishdatetimepicker;
+
+import android.app.Activity;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that choosing and binding values stays within budgets of measure
+ * passes, layout passes and requested layouts, and that saved state stays
+ * small. A change that, i.e., doubles the layout passes per pick fails here.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class DateTimePickerLayoutBudgetTest {
+    /* Max passes and requests per choice; the reserved widths usually avoid any */
+    private static final int MEASURE_BUDGET = 1;
+    private static final int LAYOUT_BUDGET = 1;
+    private static final int REQUEST_LAYOUT_BUDGET = 1;
+    /* Far in the future, so the default validator accepts it */
+    private static final long CHOSEN_MILLIS = 3786912000000L;
+
+    private CountingDateTimePickerLayout mPicker;
+
+
+    @Before
+    public void setUp() {
+        final Activity activity = Robolectric.setupActivity(Activity.class);
+        mPicker = new CountingDateTimePickerLayout(activity);
+        mPicker.setTimeZone("UTC");
+        activity.setContentView(mPicker, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        settle();
+        mPicker.resetCounts();
+    }
+
+    @Test
+    public void setDefaultDateTime_staysWithinBudget() {
+        final Calendar c = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        c.setTimeInMillis(CHOSEN_MILLIS);
+        mPicker.setDefaultDateTime(c);
+        settle();
+        assertWithinBudget();
+    }
+
+    @Test
+    public void onDateSet_staysWithinBudget() {
+        mPicker.onDateSet(null, 2090, Calendar.JANUARY, 15);
+        settle();
+        assertEquals(DateTimePickerLayout.CHOSEN_DATE, mPicker.getChosenFlags());
+        assertWithinBudget();
+    }
+
+    @Test
+    public void onTimeSet_staysWithinBudget() {
+        mPicker.onDateSet(null, 2090, Calendar.JANUARY, 15);
+        settle();
+        mPicker.resetCounts();
+
+        mPicker.onTimeSet(null, 14, 30);
+        settle();
+        assertEquals(DateTimePickerLayout.CHOSEN_DATE | DateTimePickerLayout.CHOSEN_TIME,
+                mPicker.getChosenFlags());
+        assertWithinBudget();
+    }
+
+    @Test
+    public void bind_sameValue_doesNotRequestLayout() {
+        final int flags = DateTimePickerLayout.CHOSEN_DATE | DateTimePickerLayout.CHOSEN_TIME;
+        mPicker.bind(CHOSEN_MILLIS, flags);
+        settle();
+        mPicker.resetCounts();
+
+        for (int i = 0; i < 100; i++) {
+            mPicker.bind(CHOSEN_MILLIS, flags);
+        }
+        settle();
+        assertEquals(0, mPicker.mRequestLayoutCount);
+        assertEquals(0, mPicker.mOnMeasureCount);
+        assertEquals(0, mPicker.mOnLayoutCount);
+    }
+
+    @Test
+    public void bind_manyValues_staysWithinBudget() {
+        final int flags = DateTimePickerLayout.CHOSEN_DATE | DateTimePickerLayout.CHOSEN_TIME;
+        for (int i = 0; i < 100; i++) {
+            mPicker.bind(CHOSEN_MILLIS + i * EpochMath.MILLIS_PER_DAY, flags);
+        }
+        settle();
+        // Binds between frames share one pass
+        assertWithinBudget();
+    }
+
+    @Test
+    public void savedState_addsTwelveBytes() {
+        final int flags = DateTimePickerLayout.CHOSEN_DATE | DateTimePickerLayout.CHOSEN_TIME;
+        mPicker.bind(CHOSEN_MILLIS, flags);
+        final DateTimePickerLayout.SavedState state =
+                (DateTimePickerLayout.SavedState)mPicker.onSaveInstanceState();
+
+        final Parcel parcel = Parcel.obtain();
+        final Parcel superParcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            new View.BaseSavedState(state.getSuperState()).writeToParcel(superParcel, 0);
+            assertEquals(12, parcel.dataSize() - superParcel.dataSize());
+        } finally {
+            parcel.recycle();
+            superParcel.recycle();
+        }
+    }
+
+    @Test
+    public void savedState_restoresChosenValueAndErrors() {
+        final int flags = DateTimePickerLayout.CHOSEN_DATE | DateTimePickerLayout.CHOSEN_TIME;
+        mPicker.bind(CHOSEN_MILLIS, flags);
+        mPicker.showValidationErrors(ValidationResults.INVALID_TIME);
+        final Parcelable state = mPicker.onSaveInstanceState();
+
+        final CountingDateTimePickerLayout restored =
+                new CountingDateTimePickerLayout(mPicker.getContext());
+        restored.setTimeZone("UTC");
+        restored.onRestoreInstanceState(state);
+        assertEquals(flags, restored.getChosenFlags());
+        assertEquals(CHOSEN_MILLIS, restored.getChosenValue().getEpochMillis());
+        assertNull(restored.getDateError());
+        assertEquals("Time is invalid!", String.valueOf(restored.getTimeError()));
+
+        // A custom strategy recreates its own error UI
+        final CountingInvalidDateTimeStrategy strategy = new CountingInvalidDateTimeStrategy();
+        final CountingDateTimePickerLayout custom =
+                new CountingDateTimePickerLayout(mPicker.getContext());
+        custom.setTimeZone("UTC");
+        custom.setInvalidDateTimeStrategy(strategy);
+        custom.onRestoreInstanceState(state);
+        assertEquals(0, strategy.mInvalidDateCount);
+        assertEquals(1, strategy.mInvalidTimeCount);
+        assertNull(custom.getDateError());
+        assertNull(custom.getTimeError());
+    }
+
+    @Test
+    public void screenState_takesTwoLongsPerPicker() {
+        final LinearLayout screen = new LinearLayout(mPicker.getContext());
+        for (int i = 0; i < 3; i++) {
+            final DateTimePickerLayout picker = new DateTimePickerLayout(mPicker.getContext());
+            picker.setId(i + 1);
+            picker.setTimeZone("UTC");
+            picker.bind(CHOSEN_MILLIS + i * EpochMath.MILLIS_PER_DAY, DateTimePickerLayout.CHOSEN_DATE);
+            screen.addView(picker);
+        }
+
+        final long[] state = PickerScreenState.save(screen);
+        assertEquals(6, state.length);
+
+        for (int i = 0; i < 3; i++) {
+            ((DateTimePickerLayout)screen.getChildAt(i)).clearChosenDateTime();
+        }
+        PickerScreenState.restore(screen, state);
+        for (int i = 0; i < 3; i++) {
+            final DateTimePickerLayout picker = (DateTimePickerLayout)screen.getChildAt(i);
+            assertEquals(DateTimePickerLayout.CHOSEN_DATE, picker.getChosenFlags());
+            assertEquals(CHOSEN_MILLIS + i * EpochMath.MILLIS_PER_DAY,
+                    picker.getChosenValue().getEpochMillis());
+        }
+    }
+
+    /**
+     * Counts the invalid dates and times it is told about, without showing
+     * anything.
+     */
+    private static final class CountingInvalidDateTimeStrategy implements InvalidDateTimeStrategy {
+        int mInvalidDateCount;
+        int mInvalidTimeCount;
+
+        @Override
+        public void onInvalidDate(DateTimePickerLayout parent, TextView view) {
+            mInvalidDateCount++;
+        }
+
+        @Override
+        public void onInvalidTime(DateTimePickerLayout parent, TextView view) {
+            mInvalidTimeCount++;
+        }
+    }
+
+    private void assertWithinBudget() {
+        assertTrue("onMeasure called " + mPicker.mOnMeasureCount + " times",
+                mPicker.mOnMeasureCount <= MEASURE_BUDGET);
+        assertTrue("onLayout called " + mPicker.mOnLayoutCount + " times",
+                mPicker.mOnLayoutCount <= LAYOUT_BUDGET);
+        assertTrue("requestLayout called " + mPicker.mRequestLayoutCount + " times",
+                mPicker.mRequestLayoutCount <= REQUEST_LAYOUT_BUDGET);
+    }
+
+    /** Runs all pending frames, including layout passes. */
+    private static void settle() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+}